@@ -0,0 +1,50 @@
+package you.shall.not.pass.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import you.shall.not.pass.service.CookieService;
+
+import javax.servlet.http.Cookie;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CookieServiceBenchmark {
+
+    private CookieService cookieService;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setup() {
+        cookieService = new CookieService();
+        request = new MockHttpServletRequest();
+        request.setCookies(
+                new Cookie("JSESSIONID", "4F3A9C2E1B7D"),
+                new Cookie("CSRF", "75DA5FAF2470BAA3_1600000000_00112233445566778899AABBCCDDEEFF"),
+                new Cookie("GRANT", "8C1E9F2A7B3D4C5E6F708192A3B4C5D6"));
+    }
+
+    @Benchmark
+    public String parseAndRead() {
+        request.clearAttributes();
+        return cookieService.getCookieValue(request, "GRANT");
+    }
+
+    @Benchmark
+    public String createCookie() {
+        return cookieService.createCookie("GRANT", "8C1E9F2A7B3D4C5E6F708192A3B4C5D6", 180);
+    }
+}
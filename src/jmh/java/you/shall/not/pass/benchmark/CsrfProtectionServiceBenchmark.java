@@ -0,0 +1,61 @@
+package you.shall.not.pass.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import you.shall.not.pass.exception.CsrfViolationException;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsrfProtectionServiceBenchmark {
+
+    private GatewayFixture fixture;
+    private MockHttpServletRequest valid;
+    private MockHttpServletRequest forged;
+
+    @Setup
+    public void setup() {
+        fixture = new GatewayFixture();
+        String token = fixture.csrfToken();
+        String forgedToken = token.substring(0, token.length() - 1) + (token.endsWith("0") ? "1" : "0");
+        valid = fixture.request("/", null, token);
+        forged = fixture.request("/", null, forgedToken);
+    }
+
+    @Benchmark
+    public String issue() {
+        return fixture.csrfProtectionService.getCsrfCookie();
+    }
+
+    @Benchmark
+    public boolean validateValidToken() {
+        valid.clearAttributes();
+        fixture.csrfProtectionService.validateCsrfCookie(valid);
+        return true;
+    }
+
+    @Benchmark
+    public boolean validateForgedToken() {
+        forged.clearAttributes();
+        try {
+            fixture.csrfProtectionService.validateCsrfCookie(forged);
+            return true;
+        } catch (CsrfViolationException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package you.shall.not.pass.benchmark;
+
+import com.google.gson.Gson;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.domain.StoredSession;
+import you.shall.not.pass.dto.ResponseBodies;
+import you.shall.not.pass.filter.GrantSecurityFilter;
+import you.shall.not.pass.filter.staticresource.AccessPolicyFile;
+import you.shall.not.pass.filter.staticresource.StaticResourceIndex;
+import you.shall.not.pass.filter.staticresource.StaticResourceValidator;
+import you.shall.not.pass.logging.AccessLogService;
+import you.shall.not.pass.metrics.GatewayMetrics;
+import you.shall.not.pass.repositories.SessionRepository;
+import you.shall.not.pass.service.AnonymousTokenService;
+import you.shall.not.pass.service.CookieService;
+import you.shall.not.pass.service.CsrfKeyRing;
+import you.shall.not.pass.service.CsrfProtectionService;
+import you.shall.not.pass.service.DateService;
+import you.shall.not.pass.service.HexEncoder;
+import you.shall.not.pass.service.MongoSessionStore;
+import you.shall.not.pass.service.SecureTokenService;
+import you.shall.not.pass.service.SessionCache;
+import you.shall.not.pass.service.SessionService;
+import you.shall.not.pass.service.SessionStore;
+import you.shall.not.pass.service.SessionWriter;
+import you.shall.not.pass.service.UserDirectory;
+import you.shall.not.pass.service.UserService;
+
+import javax.servlet.http.Cookie;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Wires the gateway object graph by hand, with Mockito standing in for the Mongo repositories,
+ * so benchmarks exercise the production code without a Spring context or a database.
+ */
+class GatewayFixture {
+
+    static final int EXPIRY_SECONDS = 180;
+    static final String PUBLIC_RESOURCE = "/css/main.css";
+    static final String LEVEL_1_RESOURCE = "/Level1/low/access.html";
+    static final String LEVEL_2_RESOURCE = "/Level2/what/am/I/access.html";
+
+    final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final SecureTokenService secureTokenService = new SecureTokenService();
+    final CookieService cookieService = new CookieService();
+    final SessionRepository sessionRepository = mock(SessionRepository.class);
+    final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    final CsrfKeyRing csrfKeyRing;
+    final CsrfProtectionService csrfProtectionService;
+    final AnonymousTokenService anonymousTokenService;
+    final SessionService sessionService;
+    final AccessLogService accessLogService;
+    final GrantSecurityFilter grantSecurityFilter;
+
+    GatewayFixture() {
+        csrfKeyRing = new CsrfKeyRing(secureTokenService);
+        ReflectionTestUtils.setField(csrfKeyRing, "secret", "");
+        ReflectionTestUtils.setField(csrfKeyRing, "rotationSeconds", 86400L);
+        ReflectionTestUtils.setField(csrfKeyRing, "expirySeconds", (long) EXPIRY_SECONDS);
+        csrfKeyRing.setupKeys();
+
+        csrfProtectionService = new CsrfProtectionService(cookieService, secureTokenService, csrfKeyRing);
+        ReflectionTestUtils.setField(csrfProtectionService, "expiry", EXPIRY_SECONDS);
+
+        anonymousTokenService = new AnonymousTokenService(secureTokenService);
+        ReflectionTestUtils.setField(anonymousTokenService, "secret", "");
+        anonymousTokenService.setupKey();
+
+        SessionCache sessionCache = new SessionCache(meterRegistry);
+        ReflectionTestUtils.setField(sessionCache, "maximumSize", 10_000L);
+        ReflectionTestUtils.setField(sessionCache, "ttlSeconds", 30L);
+        sessionCache.setupCache();
+
+        SessionWriter sessionWriter = new SessionWriter(mongoTemplate, meterRegistry);
+        ReflectionTestUtils.setField(sessionWriter, "maxPending", 100_000);
+        SessionStore sessionStore = new MongoSessionStore(mongoTemplate, sessionRepository, sessionWriter,
+                new StaticListableBeanFactory().getBeanProvider(ReactiveMongoOperations.class));
+        ReflectionTestUtils.setField(sessionStore, "legacyReads", false);
+        sessionService = new SessionService(sessionStore, new UserService(mock(UserDirectory.class)),
+                csrfProtectionService, cookieService, new DateService(), sessionCache,
+                secureTokenService, anonymousTokenService);
+        ReflectionTestUtils.setField(sessionService, "sessionExpirySeconds", EXPIRY_SECONDS);
+        ReflectionTestUtils.setField(sessionService, "lazyAnonymousSessions", true);
+
+        accessLogService = new AccessLogService(meterRegistry);
+        ReflectionTestUtils.setField(accessLogService, "bufferSize", 8192);
+        ReflectionTestUtils.setField(accessLogService, "sampleRate", 0.0);
+        try {
+            accessLogService.start();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+
+        grantSecurityFilter = new GrantSecurityFilter(new ResponseBodies(new Gson()), cookieService, sessionService,
+                resourceIndex(validator(Access.Level1, LEVEL_1_RESOURCE), validator(Access.Level2, LEVEL_2_RESOURCE)),
+                csrfProtectionService, accessLogService, new GatewayMetrics(meterRegistry));
+    }
+
+    String elevatedSession(Access grant) {
+        Date expiry = new Date(System.currentTimeMillis() + 3_600_000);
+        String token = anonymousTokenService.issue(expiry);
+        StoredSession session = StoredSession.builder()
+                .token(HexEncoder.decode(token))
+                .grant(grant.getLevel())
+                .userId("bob")
+                .expiry(expiry.getTime())
+                .build();
+        when(mongoTemplate.findById(session.getToken(), StoredSession.class)).thenReturn(session);
+        return token;
+    }
+
+    String csrfToken() {
+        String cookie = csrfProtectionService.getCsrfCookie();
+        return cookie.substring(cookie.indexOf('=') + 1, cookie.indexOf(';'));
+    }
+
+    MockHttpServletRequest request(String uri, String grantToken, String csrfToken) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        List<Cookie> cookies = new ArrayList<>();
+        if (grantToken != null) {
+            cookies.add(new Cookie(GrantSecurityFilter.SESSION_COOKIE_NAME, grantToken));
+        }
+        if (csrfToken != null) {
+            cookies.add(new Cookie("CSRF", csrfToken));
+            request.addHeader("XSRF", csrfToken);
+        }
+        if (!cookies.isEmpty()) {
+            request.setCookies(cookies.toArray(new Cookie[0]));
+        }
+        return request;
+    }
+
+    void unknownSessionsMiss() {
+        when(mongoTemplate.findById(any(), eq(StoredSession.class))).thenReturn(null);
+    }
+
+    void close() throws InterruptedException {
+        accessLogService.stop();
+    }
+
+    static StaticResourceIndex resourceIndex(StaticResourceValidator... validators) {
+        AccessPolicyFile policyFile = new AccessPolicyFile(new Gson());
+        ReflectionTestUtils.setField(policyFile, "location", "");
+        List<StaticResourceValidator> list = new ArrayList<>();
+        Collections.addAll(list, validators);
+        StaticResourceIndex index = new StaticResourceIndex(list, policyFile);
+        index.buildIndex();
+        return index;
+    }
+
+    static StaticResourceValidator validator(Access access, String... resources) {
+        List<String> staticResources = new ArrayList<>();
+        Collections.addAll(staticResources, resources);
+        return validator(access, staticResources);
+    }
+
+    static StaticResourceValidator validator(Access access, List<String> resources) {
+        return new StaticResourceValidator() {
+            @Override
+            public boolean isApplicable(String requestUri) {
+                return resources.contains(requestUri);
+            }
+
+            @Override
+            public Access requires() {
+                return access;
+            }
+
+            @Override
+            public void setList() {
+            }
+
+            @Override
+            public List<String> getStaticResources() {
+                return resources;
+            }
+        };
+    }
+}
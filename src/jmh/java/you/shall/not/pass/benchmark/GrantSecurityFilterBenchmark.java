@@ -0,0 +1,90 @@
+package you.shall.not.pass.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.filter.GrantSecurityFilter;
+
+import javax.servlet.FilterChain;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GrantSecurityFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private GatewayFixture fixture;
+    private MockHttpServletRequest anonymousPublic;
+    private MockHttpServletRequest sessionPublic;
+    private MockHttpServletRequest levelOneAllowed;
+    private MockHttpServletRequest levelTwoDenied;
+    private MockHttpServletRequest csrfDenied;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fixture = new GatewayFixture();
+        fixture.unknownSessionsMiss();
+        String levelOne = fixture.elevatedSession(Access.Level1);
+        String csrf = fixture.csrfToken();
+
+        anonymousPublic = fixture.request(GatewayFixture.PUBLIC_RESOURCE, null, null);
+        sessionPublic = fixture.request(GatewayFixture.PUBLIC_RESOURCE, levelOne, null);
+        levelOneAllowed = fixture.request(GatewayFixture.LEVEL_1_RESOURCE, levelOne, csrf);
+        levelTwoDenied = fixture.request(GatewayFixture.LEVEL_2_RESOURCE, levelOne, csrf);
+        csrfDenied = fixture.request(GatewayFixture.LEVEL_1_RESOURCE, levelOne, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        fixture.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse anonymousPublicResource() throws Exception {
+        return filter(anonymousPublic);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse sessionPublicResource() throws Exception {
+        return filter(sessionPublic);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse protectedResourceAllowed() throws Exception {
+        return filter(levelOneAllowed);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse protectedResourceAccessViolation() throws Exception {
+        return filter(levelTwoDenied);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse protectedResourceCsrfViolation() throws Exception {
+        return filter(csrfDenied);
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws Exception {
+        request.clearAttributes();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        fixture.grantSecurityFilter.doFilter(request, response, NO_OP_CHAIN);
+        return response;
+    }
+}
@@ -0,0 +1,43 @@
+package you.shall.not.pass.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Threads;
+import you.shall.not.pass.service.SecureTokenService;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecureTokenServiceBenchmark {
+
+    private SecureTokenService secureTokenService;
+
+    @Setup
+    public void setup() {
+        secureTokenService = new SecureTokenService();
+    }
+
+    @Benchmark
+    public String singleThreaded() {
+        return secureTokenService.generateToken(16);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String contended() {
+        return secureTokenService.generateToken(16);
+    }
+}
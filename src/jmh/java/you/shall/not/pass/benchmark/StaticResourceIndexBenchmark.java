@@ -0,0 +1,70 @@
+package you.shall.not.pass.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Param;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.filter.staticresource.StaticResourceIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StaticResourceIndexBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int resources;
+
+    private StaticResourceIndex index;
+    private String[] hits;
+    private String[] misses;
+    private int next;
+
+    @Setup
+    public void setup() {
+        List<String> levelOne = new ArrayList<>();
+        List<String> levelTwo = new ArrayList<>();
+        for (int i = 0; i < resources; i++) {
+            (i % 2 == 0 ? levelOne : levelTwo).add("/Level" + (i % 2 + 1) + "/asset-" + i + ".html");
+        }
+        index = GatewayFixture.resourceIndex(
+                GatewayFixture.validator(Access.Level1, levelOne),
+                GatewayFixture.validator(Access.Level2, levelTwo));
+
+        int probes = Math.min(resources, 1024);
+        hits = new String[probes];
+        misses = new String[probes];
+        for (int i = 0; i < probes; i++) {
+            int resource = (int) ((long) i * resources / probes);
+            hits[i] = "/level" + (resource % 2 + 1) + "/ASSET-" + resource + ".html";
+            misses[i] = "/css/asset-" + resource + ".css";
+        }
+    }
+
+    @Benchmark
+    public Optional<Access> hit() {
+        next = (next + 1) % hits.length;
+        return index.requiredAccess(hits[next]);
+    }
+
+    @Benchmark
+    public Optional<Access> miss() {
+        next = (next + 1) % misses.length;
+        return index.requiredAccess(misses[next]);
+    }
+}
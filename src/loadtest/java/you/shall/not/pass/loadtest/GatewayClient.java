@@ -0,0 +1,117 @@
+package you.shall.not.pass.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single browser-like client: keeps the GRANT and CSRF cookies the gateway hands out and echoes
+ * the CSRF token as the XSRF header. Bodies are always drained so keep-alive connections are reused.
+ */
+class GatewayClient {
+
+    private static final String CSRF_COOKIE = "CSRF";
+    private static final String XSRF_HEADER = "XSRF";
+
+    private final String baseUrl;
+    private final Map<String, String> cookies = new LinkedHashMap<>();
+    private final byte[] drain = new byte[8192];
+
+    private String lastBody;
+    private long loggedInAt;
+
+    GatewayClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    int get(String path) throws IOException {
+        return execute(path, null, false);
+    }
+
+    int getProtected(String path) throws IOException {
+        return execute(path, null, true);
+    }
+
+    boolean login(String level, String userName, char[] password) throws IOException {
+        cookies.clear();
+        String credentials = level + "#" + userName + ":" + String.valueOf(password);
+        String authorization = "Basic " + Base64.getEncoder()
+                .encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+        boolean authenticated = execute("/access", authorization, false) == HttpURLConnection.HTTP_OK
+                && lastBody.contains("\"authenticated\":true");
+        if (authenticated) {
+            loggedInAt = System.nanoTime();
+        }
+        return authenticated;
+    }
+
+    long loggedInAt() {
+        return loggedInAt;
+    }
+
+    private int execute(String path, String authorization, boolean echoCsrf) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setInstanceFollowRedirects(false);
+        if (!cookies.isEmpty()) {
+            connection.setRequestProperty("Cookie", cookieHeader());
+        }
+        if (authorization != null) {
+            connection.setRequestProperty("Authorization", authorization);
+        }
+        if (echoCsrf && cookies.containsKey(CSRF_COOKIE)) {
+            connection.setRequestProperty(XSRF_HEADER, cookies.get(CSRF_COOKIE));
+        }
+
+        int status = connection.getResponseCode();
+        storeCookies(connection.getHeaderFields().get("Set-Cookie"));
+        lastBody = readBody(status >= 400 ? connection.getErrorStream() : connection.getInputStream());
+        return status;
+    }
+
+    private String cookieHeader() {
+        StringBuilder header = new StringBuilder();
+        for (Map.Entry<String, String> cookie : cookies.entrySet()) {
+            if (header.length() > 0) {
+                header.append("; ");
+            }
+            header.append(cookie.getKey()).append('=').append(cookie.getValue());
+        }
+        return header.toString();
+    }
+
+    private void storeCookies(List<String> setCookies) {
+        if (setCookies == null) {
+            return;
+        }
+        for (String setCookie : setCookies) {
+            int end = setCookie.indexOf(';');
+            String pair = end < 0 ? setCookie : setCookie.substring(0, end);
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                cookies.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+            }
+        }
+    }
+
+    private String readBody(InputStream body) throws IOException {
+        if (body == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        try (InputStream in = body) {
+            int read;
+            while ((read = in.read(drain)) != -1) {
+                if (text.length() < 256) {
+                    text.append(new String(drain, 0, Math.min(read, 256), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package you.shall.not.pass.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Keeps every latency sample of one scenario on one worker, merged and sorted once the run ends.
+ */
+class LatencyRecorder {
+
+    private long[] samples = new long[1 << 14];
+    private int count;
+    private long errors;
+
+    void record(long nanos, boolean success) {
+        if (!success) {
+            errors++;
+        }
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    static Summary summarize(Iterable<LatencyRecorder> recorders, double seconds) {
+        int total = 0;
+        long errors = 0;
+        for (LatencyRecorder recorder : recorders) {
+            total += recorder.count;
+            errors += recorder.errors;
+        }
+        long[] merged = new long[total];
+        int offset = 0;
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.samples, 0, merged, offset, recorder.count);
+            offset += recorder.count;
+        }
+        Arrays.sort(merged);
+        return new Summary(total, errors, total / seconds,
+                percentile(merged, 0.5), percentile(merged, 0.99), percentile(merged, 0.999),
+                total == 0 ? 0 : merged[total - 1]);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    static class Summary {
+        final int requests;
+        final long errors;
+        final double throughput;
+        final long p50;
+        final long p99;
+        final long p999;
+        final long max;
+
+        Summary(int requests, long errors, double throughput, long p50, long p99, long p999, long max) {
+            this.requests = requests;
+            this.errors = errors;
+            this.throughput = throughput;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package you.shall.not.pass.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.mongodb.event.CommandStartedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import you.shall.not.pass.AccessGateApp;
+import you.shall.not.pass.metrics.MongoCommandMetrics;
+import you.shall.not.pass.properties.UserProperties;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boots the gateway on a free port against the embedded Mongo started by spring boot, then drives
+ * a weighted mix of scenarios from closed-loop workers and reports throughput and latency percentiles.
+ * <p>
+ * Harness options: --threads=16 --warmup=10 --duration=30 --mix=public=70,login1=3,login2=2,level1=17,level2=8
+ * --mongo-latency=0 (millis added to every synchronous mongo command), every other argument is passed on to the
+ * application, e.g. --session.anonymous.lazy=true.
+ */
+public class LoadTestHarness {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadTestHarness.class);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") && arg.contains("=") ? arg.substring(2, arg.indexOf('=')) : "";
+            if (option.equals("threads") || option.equals("warmup") || option.equals("duration") || option.equals("mix")
+                    || option.equals("mongo-latency")) {
+                options.put(option, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+
+        int threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        Map<Scenario, Integer> mix = options.containsKey("mix")
+                ? Scenario.parseMix(options.get("mix")) : Scenario.defaultMix();
+        long mongoLatencyMillis = Long.parseLong(options.getOrDefault("mongo-latency", "0"));
+
+        int httpPort = freePort();
+        addDefault(applicationArgs, "server.port", String.valueOf(httpPort));
+        addDefault(applicationArgs, "spring.data.mongodb.port", String.valueOf(freePort()));
+        System.setProperty("http.maxConnections", String.valueOf(threads * 3));
+
+        SpringApplicationBuilder application = new SpringApplicationBuilder(AccessGateApp.class);
+        if (mongoLatencyMillis > 0) {
+            application.initializers(context -> context.getBeanFactory().addBeanPostProcessor(
+                    new MongoLatencyInjector(context.getBeanFactory(), mongoLatencyMillis)));
+        }
+        ConfigurableApplicationContext context = application.run(applicationArgs.toArray(new String[0]));
+        try {
+            String port = context.getEnvironment().getProperty("local.server.port", String.valueOf(httpPort));
+            int sessionExpiry = Math.min(
+                    context.getEnvironment().getProperty("session.expiry.seconds", Integer.class, 180),
+                    context.getEnvironment().getProperty("csrf.expiry.seconds", Integer.class, 180));
+            LoadRun run = new LoadRun("http://localhost:" + port, context.getBean(UserProperties.class).getUsers(),
+                    mix, TimeUnit.SECONDS.toNanos(sessionExpiry) / 2);
+            run.execute(threads, warmupSeconds, durationSeconds);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void addDefault(List<String> applicationArgs, String property, String value) {
+        String prefix = "--" + property + "=";
+        if (applicationArgs.stream().noneMatch(arg -> arg.startsWith(prefix))) {
+            applicationArgs.add(prefix + value);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Stands in for a slow mongo: every command the client sends first sleeps on the calling request thread while
+     * holding its pooled connection.
+     */
+    static class MongoLatencyInjector implements BeanPostProcessor {
+
+        private final BeanFactory beanFactory;
+        private final long latencyMillis;
+
+        MongoLatencyInjector(BeanFactory beanFactory, long latencyMillis) {
+            this.beanFactory = beanFactory;
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof MongoCommandMetrics)) {
+                return bean;
+            }
+            LOG.info("adding {} ms to every mongo command", latencyMillis);
+            return new MongoCommandMetrics(beanFactory.getBean(MeterRegistry.class)) {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    try {
+                        Thread.sleep(latencyMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    super.commandStarted(event);
+                }
+            };
+        }
+    }
+
+    static class LoadRun {
+
+        private final String baseUrl;
+        private final List<UserProperties.User> users;
+        private final Scenario[] weighted;
+        private final long renewLoginNanos;
+
+        LoadRun(String baseUrl, List<UserProperties.User> users, Map<Scenario, Integer> mix, long renewLoginNanos) {
+            if (users.isEmpty()) {
+                throw new IllegalStateException("no data.users configured to log in with");
+            }
+            this.baseUrl = baseUrl;
+            this.users = users;
+            this.renewLoginNanos = renewLoginNanos;
+            List<Scenario> slots = new ArrayList<>();
+            mix.forEach((scenario, weight) -> {
+                for (int i = 0; i < weight; i++) {
+                    slots.add(scenario);
+                }
+            });
+            this.weighted = slots.toArray(new Scenario[0]);
+        }
+
+        void execute(int threads, int warmupSeconds, int durationSeconds) throws Exception {
+            long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+            LOG.info("driving {} with {} workers, {}s warmup and {}s measurement", baseUrl, threads,
+                    warmupSeconds, durationSeconds);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<Map<Scenario, LatencyRecorder>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Worker worker = new Worker(users.get(i % users.size()), i, measureFrom, measureUntil);
+                results.add(executor.submit(worker::run));
+            }
+
+            Map<Scenario, List<LatencyRecorder>> byScenario = new EnumMap<>(Scenario.class);
+            List<LatencyRecorder> all = new ArrayList<>();
+            for (Future<Map<Scenario, LatencyRecorder>> result : results) {
+                result.get().forEach((scenario, recorder) -> {
+                    byScenario.computeIfAbsent(scenario, s -> new ArrayList<>()).add(recorder);
+                    all.add(recorder);
+                });
+            }
+            executor.shutdown();
+
+            report(byScenario, all, durationSeconds);
+        }
+
+        private void report(Map<Scenario, List<LatencyRecorder>> byScenario, List<LatencyRecorder> all, int seconds) {
+            StringBuilder table = new StringBuilder(String.format("%n%-8s %10s %8s %10s %10s %10s %10s %10s%n",
+                    "scenario", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+            byScenario.forEach((scenario, recorders) ->
+                    row(table, scenario.getKey(), LatencyRecorder.summarize(recorders, seconds)));
+            row(table, "total", LatencyRecorder.summarize(all, seconds));
+            System.out.println(table);
+        }
+
+        private void row(StringBuilder table, String name, LatencyRecorder.Summary summary) {
+            table.append(String.format("%-8s %10d %8d %10.1f %10.3f %10.3f %10.3f %10.3f%n", name,
+                    summary.requests, summary.errors, summary.throughput, millis(summary.p50),
+                    millis(summary.p99), millis(summary.p999), millis(summary.max)));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+
+        private class Worker {
+
+            private final UserProperties.User user;
+            private final long measureFrom;
+            private final long measureUntil;
+            private final Random random;
+            private final Map<Scenario, LatencyRecorder> recorders = new EnumMap<>(Scenario.class);
+
+            private GatewayClient anonymous;
+            private GatewayClient level1;
+            private GatewayClient level2;
+
+            Worker(UserProperties.User user, int seed, long measureFrom, long measureUntil) {
+                this.user = user;
+                this.measureFrom = measureFrom;
+                this.measureUntil = measureUntil;
+                this.random = new Random(seed);
+            }
+
+            Map<Scenario, LatencyRecorder> run() throws IOException {
+                anonymous = new GatewayClient(baseUrl);
+                level1 = login("Level1", user.getLevel1Password());
+                level2 = login("Level2", user.getLevel2Password());
+
+                long now;
+                while ((now = System.nanoTime()) < measureUntil) {
+                    Scenario scenario = weighted[random.nextInt(weighted.length)];
+                    renewExpiringLogins(now);
+                    long start = System.nanoTime();
+                    boolean success;
+                    try {
+                        success = drive(scenario);
+                    } catch (IOException e) {
+                        success = false;
+                    }
+                    long end = System.nanoTime();
+                    if (start >= measureFrom) {
+                        recorders.computeIfAbsent(scenario, s -> new LatencyRecorder()).record(end - start, success);
+                    }
+                }
+                return recorders;
+            }
+
+            private boolean drive(Scenario scenario) throws IOException {
+                switch (scenario) {
+                    case PUBLIC_ASSET:
+                        return anonymous.get("/css/main.css") == 200;
+                    case LOGIN_LEVEL1:
+                        return relogin("Level1", user.getLevel1Password());
+                    case LOGIN_LEVEL2:
+                        return relogin("Level2", user.getLevel2Password());
+                    case PROTECTED_LEVEL1:
+                        return level1.getProtected(random.nextBoolean()
+                                ? "/Level1/low_access.html" : "/Level1/low/access.html") == 200;
+                    case PROTECTED_LEVEL2:
+                        return level2.getProtected(random.nextBoolean()
+                                ? "/Level2/high_access.html" : "/Level2/what/am/I/access.html") == 200;
+                    default:
+                        throw new IllegalStateException("unsupported scenario " + scenario);
+                }
+            }
+
+            private boolean relogin(String level, char[] password) throws IOException {
+                GatewayClient client = new GatewayClient(baseUrl);
+                if (!client.login(level, user.getUserName(), password)) {
+                    return false;
+                }
+                if ("Level1".equals(level)) {
+                    level1 = client;
+                } else {
+                    level2 = client;
+                }
+                return true;
+            }
+
+            private void renewExpiringLogins(long now) throws IOException {
+                if (now - level1.loggedInAt() > renewLoginNanos) {
+                    level1 = login("Level1", user.getLevel1Password());
+                }
+                if (now - level2.loggedInAt() > renewLoginNanos) {
+                    level2 = login("Level2", user.getLevel2Password());
+                }
+            }
+
+            private GatewayClient login(String level, char[] password) throws IOException {
+                GatewayClient client = new GatewayClient(baseUrl);
+                if (!client.login(level, user.getUserName(), password)) {
+                    throw new IllegalStateException(level + " login failed for " + user.getUserName());
+                }
+                return client;
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package you.shall.not.pass.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+enum Scenario {
+
+    PUBLIC_ASSET("public", 70),
+    LOGIN_LEVEL1("login1", 3),
+    LOGIN_LEVEL2("login2", 2),
+    PROTECTED_LEVEL1("level1", 17),
+    PROTECTED_LEVEL2("level2", 8);
+
+    private final String key;
+    private final int defaultWeight;
+
+    Scenario(String key, int defaultWeight) {
+        this.key = key;
+        this.defaultWeight = defaultWeight;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    static Optional<Scenario> find(String key) {
+        return Arrays.stream(values()).filter(scenario -> scenario.key.equalsIgnoreCase(key)).findFirst();
+    }
+
+    static Map<Scenario, Integer> defaultMix() {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : values()) {
+            mix.put(scenario, scenario.defaultWeight);
+        }
+        return mix;
+    }
+
+    /**
+     * Parses a mix such as "public=70,level1=20,login1=10", scenarios left out are not driven.
+     */
+    static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String entry : value.split(",")) {
+            String[] pair = entry.trim().split("=");
+            Scenario scenario = find(pair[0]).orElseThrow(()
+                    -> new IllegalArgumentException("unknown scenario " + pair[0]));
+            mix.put(scenario, pair.length > 1 ? Integer.parseInt(pair[1].trim()) : 1);
+        }
+        return mix;
+    }
+}
@@ -2,8 +2,9 @@ package you.shall.not.pass;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
 
-@SpringBootApplication
+@SpringBootApplication(exclude = MongoReactiveAutoConfiguration.class)
 public class AccessGateApp {
 
 	public static void main(String[] args) {
@@ -1,18 +1,26 @@
 package you.shall.not.pass.configuration;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClients;
-import cz.jirutka.spring.embedmongo.EmbeddedMongoFactoryBean;
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.MongoDbFactory;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.SimpleMongoClientDbFactory;
+import you.shall.not.pass.metrics.MongoCommandMetrics;
 
 
 @Configuration
 public class MongoConfig {
 
+    private static final Logger LOG = LoggerFactory.getLogger(MongoConfig.class);
+
     @Value("${spring.data.mongodb.host}")
     private String host;
 
@@ -22,8 +30,14 @@ public class MongoConfig {
     @Value("${spring.data.mongodb.database}")
     private String name;
 
+    @Value("${mongo.pool.max.size}")
+    private int poolMaxSize;
+
+    @Value("${mongo.pool.max.wait.queue.size}")
+    private int poolMaxWaitQueueSize;
+
     @Bean
-    public MongoDbFactory mongoDbFactory() {
+    public MongoDbFactory mongoDbFactory(MongoCommandMetrics mongoCommandMetrics, ObjectProvider<MongodExecutable> embeddedMongo) {
         if (port == 0) {
             throw new RuntimeException("No port provided for mongo db, failed connection to db!");
         }
@@ -32,8 +46,18 @@ public class MongoConfig {
             throw new RuntimeException("No host provided for mongo db, failed connection to db!");
         }
 
+        // the client is not a bean, so boot cannot order it after the embedded mongod on its own
+        embeddedMongo.ifAvailable(mongod -> LOG.info("using embedded mongo on port {}", port));
+
         String connectionURL = "mongodb://"+ host+":" + port;
-        return new SimpleMongoClientDbFactory(MongoClients.create(connectionURL), name);
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(connectionURL))
+                .addCommandListener(mongoCommandMetrics)
+                .applyToConnectionPoolSettings(pool -> pool
+                        .maxSize(poolMaxSize)
+                        .maxWaitQueueSize(poolMaxWaitQueueSize))
+                .build();
+        return new SimpleMongoClientDbFactory(MongoClients.create(settings), name);
     }
 
     @Bean
@@ -42,11 +66,4 @@ public class MongoConfig {
         return mongoTemplate;
     }
 
-    @Bean
-    public void setupMongo()  {
-        EmbeddedMongoFactoryBean mongo = new EmbeddedMongoFactoryBean();
-        mongo.setBindIp(host);
-        mongo.setPort(port);
-    }
-
 }
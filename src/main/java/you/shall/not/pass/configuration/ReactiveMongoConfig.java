@@ -0,0 +1,56 @@
+package you.shall.not.pass.configuration;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import you.shall.not.pass.metrics.MongoCommandMetrics;
+
+/**
+ * Reactive driver for the session lookups of the reactive gateway, alongside the synchronous client of
+ * {@link MongoConfig} that keeps serving users, indexes and session writes.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveMongoConfig {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveMongoConfig.class);
+
+    @Value("${spring.data.mongodb.host}")
+    private String host;
+
+    @Value("${spring.data.mongodb.port}")
+    private int port;
+
+    @Value("${spring.data.mongodb.database}")
+    private String name;
+
+    @Bean
+    public ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory(MongoCommandMetrics mongoCommandMetrics,
+                                                                     ObjectProvider<MongodExecutable> embeddedMongo) {
+        // as in MongoConfig, resolving the embedded mongod starts it before the client connects
+        embeddedMongo.ifAvailable(mongod -> LOG.info("reactive client using embedded mongo on port {}", port));
+
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString("mongodb://" + host + ":" + port))
+                .addCommandListener(mongoCommandMetrics)
+                .build();
+        return new SimpleReactiveMongoDatabaseFactory(MongoClients.create(settings), name);
+    }
+
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory) {
+        return new ReactiveMongoTemplate(reactiveMongoDatabaseFactory);
+    }
+
+}
@@ -1,45 +1,50 @@
 package you.shall.not.pass.controller;
 
-import com.google.gson.Gson;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
-import you.shall.not.pass.dto.StaticResources;
-import you.shall.not.pass.dto.Success;
-import you.shall.not.pass.filter.staticresource.StaticResourceService;
+import you.shall.not.pass.dto.ResponseBodies;
+import you.shall.not.pass.filter.staticresource.StaticResourceListing;
 import you.shall.not.pass.service.CookieService;
 import you.shall.not.pass.service.CsrfProtectionService;
 import you.shall.not.pass.service.SessionService;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.Optional;
 
 import static you.shall.not.pass.filter.GrantSecurityFilter.SESSION_COOKIE_NAME;
 
 @Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GateController {
 
+	static final String JSON_CONTENT_TYPE = ResponseBodies.CONTENT_TYPE;
+	static final String LISTING_CACHE_CONTROL = "no-cache";
+
 	private final SessionService sessionService;
 	private final CsrfProtectionService csrfProtectionService;
-	private final StaticResourceService resourceService;
+	private final StaticResourceListing resourceListing;
 	private final CookieService cookieService;
-	private final Gson gson;
+	private final ResponseBodies responseBodies;
 
 	@Autowired
-	public GateController(SessionService sessionService, CsrfProtectionService csrfProtectionService, StaticResourceService resourceService, CookieService cookieService, Gson gson) {
+	public GateController(SessionService sessionService, CsrfProtectionService csrfProtectionService, StaticResourceListing resourceListing, CookieService cookieService, ResponseBodies responseBodies) {
 		this.sessionService = sessionService;
 		this.csrfProtectionService = csrfProtectionService;
-		this.resourceService = resourceService;
+		this.resourceListing = resourceListing;
 		this.cookieService = cookieService;
-		this.gson = gson;
+		this.responseBodies = responseBodies;
 	}
 
 	@GetMapping({"/access"})
-	public ResponseEntity<String> access(HttpServletRequest request, HttpServletResponse response) {
-		Success.SuccessBuilder builder = Success.builder();
+	public ResponseEntity<byte[]> access(HttpServletRequest request, HttpServletResponse response) {
 		String cookieValue = cookieService.getCookieValue(request, SessionService.SESSION_COOKIE);
 
 		if (StringUtils.isEmpty(cookieValue)) {
@@ -51,16 +56,30 @@ public class GateController {
 			String csrf = csrfProtectionService.getCsrfCookie();
 			cookieService.addCookie(csrf, response);
 			cookieService.addCookie(session, response);
-			builder.authenticated(true);
 		});
-		return ResponseEntity.ok(gson.toJson(builder.build()));
+		return json(responseBodies.success(optionalSession.isPresent()));
 	}
 
 	@GetMapping({"/resources"})
-	public ResponseEntity<String> resources() {
-		StaticResources resources = StaticResources.builder()
-				.resources(resourceService.getAllStaticResources()).build();
-		return ResponseEntity.ok(gson.toJson(resources));
+	public void resources(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		response.setHeader(HttpHeaders.ETAG, resourceListing.getEtag());
+		response.setHeader(HttpHeaders.CACHE_CONTROL, LISTING_CACHE_CONTROL);
+		if (resourceListing.isNotModified(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+			response.setStatus(HttpStatus.NOT_MODIFIED.value());
+			return;
+		}
+
+		byte[] body = resourceListing.getBody();
+		response.setContentType(JSON_CONTENT_TYPE);
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+	}
+
+	static ResponseEntity<byte[]> json(byte[] body) {
+		return ResponseEntity.ok()
+				.header(HttpHeaders.CONTENT_TYPE, JSON_CONTENT_TYPE)
+				.contentLength(body.length)
+				.body(body);
 	}
 
 	@GetMapping({"/home"})
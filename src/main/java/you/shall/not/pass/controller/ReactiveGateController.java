@@ -0,0 +1,102 @@
+package you.shall.not.pass.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.dto.ResponseBodies;
+import you.shall.not.pass.filter.staticresource.StaticResourceListing;
+import you.shall.not.pass.service.CsrfProtectionService;
+import you.shall.not.pass.service.LogonUserService;
+import you.shall.not.pass.service.SessionService;
+
+import java.util.Optional;
+
+import static you.shall.not.pass.filter.GrantSecurityFilter.SESSION_COOKIE_NAME;
+
+/**
+ * {@link GateController} for the reactive gateway. Logins look up and write through sessions on the blocking
+ * client, so they run on the bounded elastic scheduler rather than on a Netty event loop.
+ */
+@Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveGateController {
+
+	private final SessionService sessionService;
+	private final CsrfProtectionService csrfProtectionService;
+	private final StaticResourceListing resourceListing;
+	private final ResponseBodies responseBodies;
+
+	public ReactiveGateController(SessionService sessionService, CsrfProtectionService csrfProtectionService, StaticResourceListing resourceListing, ResponseBodies responseBodies) {
+		this.sessionService = sessionService;
+		this.csrfProtectionService = csrfProtectionService;
+		this.resourceListing = resourceListing;
+		this.responseBodies = responseBodies;
+	}
+
+	@GetMapping({"/access"})
+	public Mono<ResponseEntity<byte[]>> access(ServerWebExchange exchange) {
+		HttpCookie cookie = exchange.getRequest().getCookies().getFirst(SessionService.SESSION_COOKIE);
+		String cookieValue = cookie == null ? null : cookie.getValue();
+
+		if (StringUtils.isEmpty(cookieValue)) {
+			cookieValue = String.valueOf((Object) exchange.getAttribute(SESSION_COOKIE_NAME));
+		}
+
+		final String sessionCookieValue = cookieValue;
+		return ReactiveSecurityContextHolder.getContext()
+				.map(SecurityContext::getAuthentication)
+				.publishOn(Schedulers.boundedElastic())
+				.map(authentication -> {
+					String username = LogonUserService.getUser(authentication).orElseThrow(()
+							-> new RuntimeException("unknown user requesting session!"));
+					Access level = LogonUserService.getAccessLevel(authentication).orElseThrow(()
+							-> new RuntimeException("Invalid user access level!"));
+					return sessionService.authenticatedSession(sessionCookieValue, username, level);
+				})
+				.map(optionalSession -> access(exchange, optionalSession));
+	}
+
+	private ResponseEntity<byte[]> access(ServerWebExchange exchange, Optional<String> optionalSession) {
+		optionalSession.ifPresent(session -> {
+			HttpHeaders headers = exchange.getResponse().getHeaders();
+			headers.add(HttpHeaders.SET_COOKIE, csrfProtectionService.getCsrfCookie());
+			headers.add(HttpHeaders.SET_COOKIE, session);
+		});
+		return GateController.json(responseBodies.success(optionalSession.isPresent()));
+	}
+
+	@GetMapping({"/resources"})
+	public Mono<Void> resources(ServerWebExchange exchange) {
+		ServerHttpResponse response = exchange.getResponse();
+		HttpHeaders headers = response.getHeaders();
+		headers.set(HttpHeaders.ETAG, resourceListing.getEtag());
+		headers.set(HttpHeaders.CACHE_CONTROL, GateController.LISTING_CACHE_CONTROL);
+		if (resourceListing.isNotModified(exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+			response.setStatusCode(HttpStatus.NOT_MODIFIED);
+			return response.setComplete();
+		}
+
+		byte[] body = resourceListing.getBody();
+		headers.set(HttpHeaders.CONTENT_TYPE, GateController.JSON_CONTENT_TYPE);
+		headers.setContentLength(body.length);
+		return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+	}
+
+	@GetMapping({"/home"})
+	public String hello() {
+		return "any-app";
+	}
+
+}
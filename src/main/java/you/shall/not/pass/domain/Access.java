@@ -15,8 +15,16 @@ public enum Access {
     }
 
     public static Optional<Access> find(String lvl) {
+        return find(Integer.parseInt(lvl));
+    }
+
+    public static Optional<Access> find(int lvl) {
         return Arrays.stream(Access.values()).filter(gateKeeperGrant ->
-                gateKeeperGrant.level == Integer.valueOf(lvl)).findFirst();
+                gateKeeperGrant.level == lvl).findFirst();
+    }
+
+    public int getLevel() {
+        return level;
     }
 
     public boolean isLevelHigherThanSessionAccessLevel(Access sessionAccess) {
@@ -3,16 +3,22 @@ package you.shall.not.pass.domain;
 import lombok.Builder;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
 @Builder
 @Data
+@Document("session")
+@CompoundIndex(name = "user_grant_date", def = "{'userId': 1, 'grant': 1, 'date': -1}")
 public class Session {
     @Id
     private String sessionId;
     private Access grant;
     private String userId;
+    @Indexed(unique = true)
     private String token;
     private Date date;
 }
@@ -0,0 +1,27 @@
+package you.shall.not.pass.domain;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * Persistent form of a {@link Session}: the token bytes are the _id, the grant is its access level
+ * and the expiry is in epoch millis, with single letter field names.
+ */
+@Builder
+@Data
+@Document("sessions")
+@CompoundIndex(name = "user_grant_expiry", def = "{'u': 1, 'g': 1, 'e': -1}")
+public class StoredSession {
+    @Id
+    private byte[] token;
+    @Field("g")
+    private Integer grant;
+    @Field("u")
+    private String userId;
+    @Field("e")
+    private Long expiry;
+}
@@ -3,13 +3,18 @@ package you.shall.not.pass.domain;
 import lombok.Builder;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 @Data
 @Builder
+@Document("user")
 public class User {
     @Id
     private String id;
+    @Indexed(unique = true)
     private String userName;
     private char[] level1Password;
     private char[] level2Password;
+    private long version;
 }
@@ -0,0 +1,68 @@
+package you.shall.not.pass.dto;
+
+import com.google.gson.Gson;
+import org.springframework.stereotype.Component;
+import you.shall.not.pass.domain.Access;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * UTF-8 JSON bodies of the responses the gateway writes itself. There are only a few of them, two {@link Success}
+ * states and a {@link Violation} per required level or CSRF message, whose messages are constants in code, so each
+ * is serialized once and rejections write the shared bytes. The returned arrays must never be modified.
+ */
+@Component
+public class ResponseBodies {
+
+    public static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+
+    private final Gson gson;
+    private final byte[] authenticated;
+    private final byte[] unauthenticated;
+    private final Map<Access, Map<String, byte[]>> accessViolations = new EnumMap<>(Access.class);
+    private final Map<String, byte[]> csrfViolations = new ConcurrentHashMap<>();
+
+    public ResponseBodies(Gson gson) {
+        this.gson = gson;
+        this.authenticated = encode(Success.builder().authenticated(true).build());
+        this.unauthenticated = encode(Success.builder().authenticated(false).build());
+        for (Access access : Access.values()) {
+            accessViolations.put(access, new ConcurrentHashMap<>());
+        }
+    }
+
+    public byte[] success(boolean authenticated) {
+        return authenticated ? this.authenticated : unauthenticated;
+    }
+
+    public byte[] accessViolation(Access required, String message) {
+        byte[] body = message == null ? null : accessViolations.get(required).get(message);
+        return body != null ? body : cache(accessViolations.get(required), message, Violation.builder()
+                .message(message)
+                .requiredAccess(required)
+                .build());
+    }
+
+    public byte[] csrfViolation(String message) {
+        byte[] body = message == null ? null : csrfViolations.get(message);
+        return body != null ? body : cache(csrfViolations, message, Violation.builder()
+                .message(message)
+                .csrfPassed(false)
+                .build());
+    }
+
+    private byte[] cache(Map<String, byte[]> bodies, String message, Violation violation) {
+        byte[] body = encode(violation);
+        if (message != null) {
+            bodies.putIfAbsent(message, body);
+        }
+        return body;
+    }
+
+    private byte[] encode(Object body) {
+        return gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+    }
+}
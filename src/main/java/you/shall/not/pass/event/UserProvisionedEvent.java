@@ -0,0 +1,18 @@
+package you.shall.not.pass.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published after a user and its level passwords have been (re)written to the store.
+ */
+@Getter
+public class UserProvisionedEvent extends ApplicationEvent {
+
+    private final String userName;
+
+    public UserProvisionedEvent(Object source, String userName) {
+        super(source);
+        this.userName = userName;
+    }
+}
@@ -4,13 +4,16 @@ import lombok.Getter;
 import you.shall.not.pass.domain.Access;
 
 
+/**
+ * Rejection control flow rather than a fault, so no stack trace is captured; denied floods stay cheap to throw.
+ */
 @Getter
 public class AccessGrantException extends RuntimeException {
 
     private final Access required;
 
     public AccessGrantException(Access required, String message) {
-        super(message);
+        super(message, null, false, false);
         this.required = required;
     }
 
@@ -1,8 +1,11 @@
 package you.shall.not.pass.exception;
 
+/**
+ * Like {@link AccessGrantException} a rejection rather than a fault, thrown without a stack trace.
+ */
 public class CsrfViolationException extends RuntimeException {
 
     public CsrfViolationException( String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
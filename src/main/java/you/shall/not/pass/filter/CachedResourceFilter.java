@@ -0,0 +1,85 @@
+package you.shall.not.pass.filter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import you.shall.not.pass.filter.staticresource.CachedResource;
+import you.shall.not.pass.filter.staticresource.EntityTags;
+import you.shall.not.pass.filter.staticresource.StaticResourceCache;
+import you.shall.not.pass.filter.staticresource.StaticResourceIndex;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Serves static resources from {@link StaticResourceCache}. Ordered after {@link GrantSecurityFilter}, so a request
+ * only gets here, and only ever sees a 304, once its access decision has passed. Protected resources are marked
+ * private so shared caches never keep them, and every resource is revalidated against its ETag on each use.
+ */
+@Component
+@Order(2)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CachedResourceFilter implements Filter {
+
+	static final String PROTECTED_CACHE_CONTROL = "private, no-cache";
+	static final String PUBLIC_CACHE_CONTROL = "no-cache";
+
+	private final StaticResourceCache staticResourceCache;
+	private final StaticResourceIndex staticResourceIndex;
+
+	@Autowired
+	public CachedResourceFilter(StaticResourceCache staticResourceCache, StaticResourceIndex staticResourceIndex) {
+		this.staticResourceCache = staticResourceCache;
+		this.staticResourceIndex = staticResourceIndex;
+	}
+
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+			throws IOException, ServletException {
+		HttpServletRequest httpRequest = (HttpServletRequest) request;
+		boolean head = "HEAD".equals(httpRequest.getMethod());
+		Optional<CachedResource> resource = head || "GET".equals(httpRequest.getMethod())
+				? staticResourceCache.find(httpRequest.getRequestURI()) : Optional.empty();
+		if (!resource.isPresent()) {
+			chain.doFilter(request, response);
+			return;
+		}
+		serve(httpRequest, (HttpServletResponse) response, resource.get(), head);
+	}
+
+	private void serve(HttpServletRequest request, HttpServletResponse response, CachedResource resource,
+					   boolean head) throws IOException {
+		CachedResource.Variant variant = resource.select(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+		response.setHeader(HttpHeaders.ETAG, variant.getEtag());
+		response.setHeader(HttpHeaders.CACHE_CONTROL, staticResourceIndex.requiredAccess(request.getRequestURI()).isPresent()
+				? PROTECTED_CACHE_CONTROL : PUBLIC_CACHE_CONTROL);
+		if (resource.hasEncodedVariants()) {
+			response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		}
+
+		if (EntityTags.isNotModified(request.getHeader(HttpHeaders.IF_NONE_MATCH), variant.getEtag())) {
+			response.setStatus(HttpStatus.NOT_MODIFIED.value());
+			return;
+		}
+
+		response.setContentType(resource.getContentType());
+		if (variant.getEncoding() != null) {
+			response.setHeader(HttpHeaders.CONTENT_ENCODING, variant.getEncoding());
+		}
+		response.setContentLength(variant.getBody().length);
+		if (!head) {
+			response.getOutputStream().write(variant.getBody());
+		}
+	}
+
+}
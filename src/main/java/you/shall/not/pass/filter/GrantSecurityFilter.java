@@ -1,22 +1,25 @@
 package you.shall.not.pass.filter;
 
-import com.google.gson.Gson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import you.shall.not.pass.domain.Access;
 import you.shall.not.pass.domain.Session;
-import you.shall.not.pass.dto.Violation;
+import you.shall.not.pass.dto.ResponseBodies;
 import you.shall.not.pass.exception.AccessGrantException;
 import you.shall.not.pass.exception.CsrfViolationException;
-import you.shall.not.pass.filter.staticresource.StaticResourceValidator;
+import you.shall.not.pass.filter.staticresource.StaticResourceIndex;
+import you.shall.not.pass.logging.AccessDecision;
+import you.shall.not.pass.logging.AccessLogService;
+import you.shall.not.pass.metrics.GatewayMetrics;
+import you.shall.not.pass.metrics.GatewayStage;
 import you.shall.not.pass.service.CookieService;
 import you.shall.not.pass.service.CsrfProtectionService;
-import you.shall.not.pass.service.SecureTokenService;
 import you.shall.not.pass.service.SessionService;
 
 import javax.servlet.Filter;
@@ -27,12 +30,11 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.List;
 import java.util.Optional;
 
 @Component
 @Order(1)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GrantSecurityFilter implements Filter {
 
 	public static final String SESSION_COOKIE_NAME = "GRANT";
@@ -41,117 +43,127 @@ public class GrantSecurityFilter implements Filter {
 	private static final Logger LOG = LoggerFactory.getLogger(GrantSecurityFilter.class);
 	public static final int DEFAULT_SESSION_EXPIRY_SECONDS = 180;
 
-	private final Gson gson;
+	private final ResponseBodies responseBodies;
 	private final CookieService cookieService;
 	private final SessionService sessionService;
-	private final List<StaticResourceValidator> resourcesValidators;
+	private final StaticResourceIndex staticResourceIndex;
 	private final CsrfProtectionService csrfProtectionService;
-	private final SecureTokenService secureTokenService;
+	private final AccessLogService accessLogService;
+	private final GatewayMetrics gatewayMetrics;
 	private final int sessionExpirySeconds;
 
 	@Autowired
-	public GrantSecurityFilter(Gson gson, CookieService cookieService, SessionService sessionService, List<StaticResourceValidator> resourcesValidators, CsrfProtectionService csrfProtectionService, SecureTokenService secureTokenService) {
-		this.gson = gson;
+	public GrantSecurityFilter(ResponseBodies responseBodies, CookieService cookieService, SessionService sessionService, StaticResourceIndex staticResourceIndex, CsrfProtectionService csrfProtectionService, AccessLogService accessLogService, GatewayMetrics gatewayMetrics) {
+		this.responseBodies = responseBodies;
 		this.cookieService = cookieService;
 		this.sessionService = sessionService;
-		this.resourcesValidators = resourcesValidators;
+		this.staticResourceIndex = staticResourceIndex;
 		this.csrfProtectionService = csrfProtectionService;
-		this.secureTokenService = secureTokenService;
+		this.accessLogService = accessLogService;
+		this.gatewayMetrics = gatewayMetrics;
 		this.sessionExpirySeconds = DEFAULT_SESSION_EXPIRY_SECONDS;
 	}
 
 	@Override
 	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
 			throws IOException, ServletException {
+		final long start = System.nanoTime();
 		try {
 			if (request.getAttribute(EXECUTE_FILTER_ONCE) == null) {
-				shallNotPassLogic((HttpServletRequest) request, (HttpServletResponse) response);
+				shallNotPassLogic((HttpServletRequest) request, (HttpServletResponse) response, start);
 			}
 			request.setAttribute(EXECUTE_FILTER_ONCE, true);
 			chain.doFilter(request, response);
 		} catch (AccessGrantException age) {
-			LOG.warn("Access violation, {}", age.getMessage());
 			processAccessGrantError((HttpServletResponse) response, age);
 		} catch (CsrfViolationException cve) {
-			LOG.warn("CSRF violation, {}", cve.getMessage());
 			processCsrfViolation((HttpServletResponse) response, cve);
 		}
 	}
 
 	private void processCsrfViolation(HttpServletResponse response, CsrfViolationException cve) {
-		Violation violation = Violation.builder()
-				.message(cve.getMessage())
-				.csrfPassed(false)
-				.build();
-
 		response.setStatus(HttpStatus.BAD_REQUEST.value());
-		writeResponse(response, gson.toJson(violation));
+		writeResponse(response, responseBodies.csrfViolation(cve.getMessage()));
 	}
 
 	private void processAccessGrantError(HttpServletResponse response, AccessGrantException age) {
-		Violation violation = Violation.builder()
-				.message(age.getMessage())
-				.requiredAccess(age.getRequired())
-				.build();
-
 		response.setStatus(HttpStatus.FORBIDDEN.value());
-		writeResponse(response, gson.toJson(violation));
+		writeResponse(response, responseBodies.accessViolation(age.getRequired(), age.getMessage()));
 	}
 
-	private void shallNotPassLogic(HttpServletRequest request, HttpServletResponse response) {
+	private void shallNotPassLogic(HttpServletRequest request, HttpServletResponse response, long start) {
+		long stageStart = System.nanoTime();
 		String sessionCookieValue = null;
 		sessionCookieValue = cookieService.getCookieValue(request, SESSION_COOKIE_NAME);
+		gatewayMetrics.record(GatewayStage.COOKIE_PARSE, stageStart);
 
 		if (StringUtils.isEmpty(sessionCookieValue)) {
 			sessionCookieValue = createAnonymousSession(request, response);
 		}
 
-		final Optional<Session> sessionByToken = sessionService.findSessionByToken(sessionCookieValue);
 		final String requestedUri = request.getRequestURI();
+		stageStart = System.nanoTime();
+		final Optional<Access> requiredAccess = staticResourceIndex.requiredAccess(requestedUri);
+		gatewayMetrics.record(GatewayStage.RESOURCE_MATCH, stageStart);
 
-		LOG.info("incoming request {} with token {}", requestedUri, sessionCookieValue);
-		final Access grant = sessionByToken.map(Session::getGrant).orElse(null);
-		LOG.info("user grant level {}", grant);
+		if (!requiredAccess.isPresent()) {
+			recordDecision(AccessDecision.ALLOWED, requestedUri, null, null, sessionCookieValue, start);
+			return;
+		}
 
-		final Optional<StaticResourceValidator> resourceValidator = getValidator(requestedUri);
+		final Access required = requiredAccess.get();
+		stageStart = System.nanoTime();
+		final Optional<Session> sessionByToken = sessionService.findSessionByToken(sessionCookieValue);
+		gatewayMetrics.record(GatewayStage.SESSION_LOOKUP, stageStart);
+		final Access grant = sessionByToken.map(Session::getGrant).orElse(null);
 
-		resourceValidator.ifPresent(validator -> {
-			LOG.info("resource validator enforced {}", validator.requires());
+		if (sessionService.isExpiredSession(sessionByToken)
+				|| required.isLevelHigherThanSessionAccessLevel(grant)) {
+			recordDecision(AccessDecision.ACCESS_VIOLATION, requestedUri, required, grant, sessionCookieValue, start);
+			throw new AccessGrantException(required, "invalid access level");
+		}
 
-			if (sessionService.isExpiredSession(sessionByToken)
-					|| validator.requires().isLevelHigherThanSessionAccessLevel(grant)) {
-				throw new AccessGrantException(validator.requires(), "invalid access level");
-			}
+		stageStart = System.nanoTime();
+		try {
 			csrfProtectionService.validateCsrfCookie(request);
+		} catch (CsrfViolationException cve) {
+			recordDecision(AccessDecision.CSRF_VIOLATION, requestedUri, required, grant, sessionCookieValue, start);
+			throw cve;
+		} finally {
+			gatewayMetrics.record(GatewayStage.CSRF_VALIDATION, stageStart);
+		}
+		// the csrf token is reissued with the session, so an active user outlives csrf.expiry.seconds too
+		sessionService.renewSession(sessionByToken.get()).ifPresent(renewedCookie -> {
+			cookieService.addCookie(renewedCookie, response);
+			cookieService.addCookie(csrfProtectionService.getCsrfCookie(), response);
 		});
+		recordDecision(AccessDecision.ALLOWED, requestedUri, required, grant, sessionCookieValue, start);
 	}
 
-	private String createAnonymousSession(HttpServletRequest request, HttpServletResponse response) {
-		String sessionToken = secureTokenService.generateToken();
-		LOG.info("incoming request with no session cookie value, creating anonymous session {}", sessionToken);
+	private void recordDecision(AccessDecision decision, String uri, Access required, Access grant, String sessionToken, long start) {
+		gatewayMetrics.record(decision, start);
+		accessLogService.record(decision, uri, required, grant, sessionToken, start);
+	}
 
-		sessionService.createAnonymousSession(sessionToken);
+	private String createAnonymousSession(HttpServletRequest request, HttpServletResponse response) {
+		final long stageStart = System.nanoTime();
+		String sessionToken = sessionService.createAnonymousSession().getToken();
 
 		String anonymousSessionCookie = cookieService.createCookie(SESSION_COOKIE_NAME, sessionToken, sessionExpirySeconds);
 		cookieService.addCookie(anonymousSessionCookie, response);
 
 		request.setAttribute(SESSION_COOKIE_NAME, sessionToken);
+		gatewayMetrics.record(GatewayStage.ANONYMOUS_SESSION, stageStart);
 		return sessionToken;
 	}
 
-	private Optional<StaticResourceValidator> getValidator(String requestedUri) {
-		return resourcesValidators.stream().filter(staticResourceValidator
-				-> staticResourceValidator.isApplicable(requestedUri)).findFirst();
-	}
-
-	private void writeResponse(HttpServletResponse response, String message) {
+	private void writeResponse(HttpServletResponse response, byte[] body) {
 		try {
-			PrintWriter out = response.getWriter();
-			LOG.info("response message {}", message);
-			out.print(message);
-			out.flush();
+			response.setContentType(ResponseBodies.CONTENT_TYPE);
+			response.setContentLength(body.length);
+			response.getOutputStream().write(body);
 		} catch (Exception e) {
-			e.printStackTrace();
+			LOG.warn("unable to write violation response", e);
 		}
 	}
 
@@ -0,0 +1,184 @@
+package you.shall.not.pass.filter;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.domain.Session;
+import you.shall.not.pass.dto.ResponseBodies;
+import you.shall.not.pass.exception.AccessGrantException;
+import you.shall.not.pass.exception.CsrfViolationException;
+import you.shall.not.pass.filter.staticresource.StaticResourceIndex;
+import you.shall.not.pass.logging.AccessDecision;
+import you.shall.not.pass.logging.AccessLogService;
+import you.shall.not.pass.metrics.GatewayMetrics;
+import you.shall.not.pass.metrics.GatewayStage;
+import you.shall.not.pass.service.CookieService;
+import you.shall.not.pass.service.CsrfProtectionService;
+import you.shall.not.pass.service.SessionService;
+
+import java.util.Optional;
+
+import static you.shall.not.pass.filter.GrantSecurityFilter.DEFAULT_SESSION_EXPIRY_SECONDS;
+import static you.shall.not.pass.filter.GrantSecurityFilter.SESSION_COOKIE_NAME;
+
+/**
+ * The access and CSRF decision of {@link GrantSecurityFilter} as a WebFilter. Everything up to the session lookup
+ * runs on the event loop from memory, and the lookup itself only reaches Mongo on a cache miss, through the
+ * reactive driver, so no thread waits on the database.
+ */
+@Component
+@Order(1)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveGrantSecurityFilter implements WebFilter {
+
+	private final ResponseBodies responseBodies;
+	private final CookieService cookieService;
+	private final SessionService sessionService;
+	private final StaticResourceIndex staticResourceIndex;
+	private final CsrfProtectionService csrfProtectionService;
+	private final AccessLogService accessLogService;
+	private final GatewayMetrics gatewayMetrics;
+
+	public ReactiveGrantSecurityFilter(ResponseBodies responseBodies, CookieService cookieService, SessionService sessionService, StaticResourceIndex staticResourceIndex, CsrfProtectionService csrfProtectionService, AccessLogService accessLogService, GatewayMetrics gatewayMetrics) {
+		this.responseBodies = responseBodies;
+		this.cookieService = cookieService;
+		this.sessionService = sessionService;
+		this.staticResourceIndex = staticResourceIndex;
+		this.csrfProtectionService = csrfProtectionService;
+		this.accessLogService = accessLogService;
+		this.gatewayMetrics = gatewayMetrics;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		final long start = System.nanoTime();
+		return shallNotPassLogic(exchange, start)
+				.then(Mono.defer(() -> chain.filter(exchange)))
+				.onErrorResume(AccessGrantException.class, age -> processAccessGrantError(exchange.getResponse(), age))
+				.onErrorResume(CsrfViolationException.class, cve -> processCsrfViolation(exchange.getResponse(), cve));
+	}
+
+	private Mono<Void> processCsrfViolation(ServerHttpResponse response, CsrfViolationException cve) {
+		response.setStatusCode(HttpStatus.BAD_REQUEST);
+		return writeResponse(response, responseBodies.csrfViolation(cve.getMessage()));
+	}
+
+	private Mono<Void> processAccessGrantError(ServerHttpResponse response, AccessGrantException age) {
+		response.setStatusCode(HttpStatus.FORBIDDEN);
+		return writeResponse(response, responseBodies.accessViolation(age.getRequired(), age.getMessage()));
+	}
+
+	private Mono<Void> shallNotPassLogic(ServerWebExchange exchange, long start) {
+		final ServerHttpRequest request = exchange.getRequest();
+		long stageStart = System.nanoTime();
+		String sessionCookieValue = cookieValue(request, SESSION_COOKIE_NAME);
+		gatewayMetrics.record(GatewayStage.COOKIE_PARSE, stageStart);
+
+		if (StringUtils.isEmpty(sessionCookieValue)) {
+			sessionCookieValue = createAnonymousSession(exchange);
+		}
+
+		final String requestedUri = request.getPath().value();
+		stageStart = System.nanoTime();
+		final Optional<Access> requiredAccess = staticResourceIndex.requiredAccess(requestedUri);
+		gatewayMetrics.record(GatewayStage.RESOURCE_MATCH, stageStart);
+
+		if (!requiredAccess.isPresent()) {
+			recordDecision(AccessDecision.ALLOWED, requestedUri, null, null, sessionCookieValue, start);
+			return Mono.empty();
+		}
+
+		final Access required = requiredAccess.get();
+		final String sessionToken = sessionCookieValue;
+		final long lookupStart = System.nanoTime();
+		return sessionService.findSessionByTokenReactive(sessionToken)
+				.map(Optional::of)
+				.defaultIfEmpty(Optional.empty())
+				.flatMap(sessionByToken -> {
+					gatewayMetrics.record(GatewayStage.SESSION_LOOKUP, lookupStart);
+					decide(exchange, requestedUri, required, sessionByToken, sessionToken, start);
+					return Mono.empty();
+				});
+	}
+
+	private void decide(ServerWebExchange exchange, String requestedUri, Access required,
+						Optional<Session> sessionByToken, String sessionToken, long start) {
+		final Access grant = sessionByToken.map(Session::getGrant).orElse(null);
+
+		if (sessionService.isExpiredSession(sessionByToken)
+				|| required.isLevelHigherThanSessionAccessLevel(grant)) {
+			recordDecision(AccessDecision.ACCESS_VIOLATION, requestedUri, required, grant, sessionToken, start);
+			throw new AccessGrantException(required, "invalid access level");
+		}
+
+		final ServerHttpRequest request = exchange.getRequest();
+		long stageStart = System.nanoTime();
+		try {
+			csrfProtectionService.validateCsrf(cookieValue(request, CsrfProtectionService.CSRF_COOKIE_NAME),
+					xsrfGuard(request));
+		} catch (CsrfViolationException cve) {
+			recordDecision(AccessDecision.CSRF_VIOLATION, requestedUri, required, grant, sessionToken, start);
+			throw cve;
+		} finally {
+			gatewayMetrics.record(GatewayStage.CSRF_VALIDATION, stageStart);
+		}
+		// the csrf token is reissued with the session, so an active user outlives csrf.expiry.seconds too
+		sessionService.renewSession(sessionByToken.get()).ifPresent(renewedCookie -> {
+			addCookie(renewedCookie, exchange.getResponse());
+			addCookie(csrfProtectionService.getCsrfCookie(), exchange.getResponse());
+		});
+		recordDecision(AccessDecision.ALLOWED, requestedUri, required, grant, sessionToken, start);
+	}
+
+	private void recordDecision(AccessDecision decision, String uri, Access required, Access grant, String sessionToken, long start) {
+		gatewayMetrics.record(decision, start);
+		accessLogService.record(decision, uri, required, grant, sessionToken, start);
+	}
+
+	private String createAnonymousSession(ServerWebExchange exchange) {
+		final long stageStart = System.nanoTime();
+		String sessionToken = sessionService.createAnonymousSession().getToken();
+
+		String anonymousSessionCookie = cookieService.createCookie(SESSION_COOKIE_NAME, sessionToken, DEFAULT_SESSION_EXPIRY_SECONDS);
+		addCookie(anonymousSessionCookie, exchange.getResponse());
+
+		exchange.getAttributes().put(SESSION_COOKIE_NAME, sessionToken);
+		gatewayMetrics.record(GatewayStage.ANONYMOUS_SESSION, stageStart);
+		return sessionToken;
+	}
+
+	private static String cookieValue(ServerHttpRequest request, String name) {
+		HttpCookie cookie = request.getCookies().getFirst(name);
+		return cookie == null ? null : cookie.getValue();
+	}
+
+	private static String xsrfGuard(ServerHttpRequest request) {
+		String guardCheckValue = request.getHeaders().getFirst(CsrfProtectionService.XSRF_GUARD_NAME);
+		if (guardCheckValue == null) {
+			guardCheckValue = request.getQueryParams().getFirst(CsrfProtectionService.XSRF_GUARD_NAME);
+		}
+		return guardCheckValue;
+	}
+
+	private static void addCookie(String cookie, ServerHttpResponse response) {
+		response.getHeaders().add(HttpHeaders.SET_COOKIE, cookie);
+	}
+
+	private static Mono<Void> writeResponse(ServerHttpResponse response, byte[] body) {
+		response.getHeaders().set(HttpHeaders.CONTENT_TYPE, ResponseBodies.CONTENT_TYPE);
+		response.getHeaders().setContentLength(body.length);
+		return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+	}
+
+}
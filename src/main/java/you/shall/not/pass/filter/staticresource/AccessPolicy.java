@@ -0,0 +1,98 @@
+package you.shall.not.pass.filter.staticresource;
+
+import org.springframework.util.AntPathMatcher;
+import you.shall.not.pass.domain.Access;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable, compiled view of the access policy. Policy file rules take precedence over the
+ * built-in validator resources: exact paths first, then the longest matching {@code /prefix/**},
+ * then any remaining glob in file order.
+ */
+final class AccessPolicy {
+
+    private static final String PREFIX_SUFFIX = "/**";
+
+    private final ResourceAccessTable builtIn;
+    private final ResourceAccessTable exact;
+    private final String[] prefixes;
+    private final Access[] prefixAccess;
+    private final List<AccessRule> globs;
+    private final AntPathMatcher globMatcher;
+
+    private AccessPolicy(ResourceAccessTable builtIn, ResourceAccessTable exact, List<AccessRule> prefixRules, List<AccessRule> globs) {
+        this.builtIn = builtIn;
+        this.exact = exact;
+        this.prefixes = new String[prefixRules.size()];
+        this.prefixAccess = new Access[prefixRules.size()];
+        for (int i = 0; i < prefixRules.size(); i++) {
+            prefixes[i] = prefixRules.get(i).getPattern();
+            prefixAccess[i] = prefixRules.get(i).getAccess();
+        }
+        this.globs = globs;
+        this.globMatcher = new AntPathMatcher();
+        this.globMatcher.setCaseSensitive(false);
+    }
+
+    static AccessPolicy compile(Map<String, Access> builtInResources, List<AccessRule> rules) {
+        Map<String, Access> exactRules = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        List<AccessRule> prefixRules = new ArrayList<>();
+        List<AccessRule> globs = new ArrayList<>();
+
+        for (AccessRule rule : rules) {
+            String pattern = rule.getPattern();
+            if (!isGlob(pattern)) {
+                exactRules.put(pattern, rule.getAccess());
+            } else if (pattern.endsWith(PREFIX_SUFFIX) && !isGlob(pattern.substring(0, pattern.length() - PREFIX_SUFFIX.length()))) {
+                String base = pattern.substring(0, pattern.length() - PREFIX_SUFFIX.length());
+                exactRules.putIfAbsent(base.isEmpty() ? "/" : base, rule.getAccess());
+                prefixRules.add(new AccessRule(base + "/", rule.getAccess()));
+            } else {
+                globs.add(rule);
+            }
+        }
+        prefixRules.sort(Comparator.comparingInt((AccessRule rule) -> rule.getPattern().length()).reversed());
+
+        return new AccessPolicy(new ResourceAccessTable(builtInResources), new ResourceAccessTable(exactRules),
+                prefixRules, globs);
+    }
+
+    Access requiredAccess(String requestUri) {
+        if (requestUri == null) {
+            return null;
+        }
+
+        Access access = exact.get(requestUri);
+        if (access != null) {
+            return access;
+        }
+
+        for (int i = 0; i < prefixes.length; i++) {
+            String prefix = prefixes[i];
+            if (requestUri.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                return prefixAccess[i];
+            }
+        }
+
+        for (AccessRule glob : globs) {
+            if (globMatcher.match(glob.getPattern(), requestUri)) {
+                return glob.getAccess();
+            }
+        }
+
+        return builtIn.get(requestUri);
+    }
+
+    int size() {
+        return builtIn.size() + exact.size() + prefixes.length + globs.size();
+    }
+
+    private static boolean isGlob(String pattern) {
+        return pattern.indexOf('*') >= 0 || pattern.indexOf('?') >= 0 || pattern.indexOf('{') >= 0;
+    }
+}
@@ -0,0 +1,84 @@
+package you.shall.not.pass.filter.staticresource;
+
+import com.google.gson.Gson;
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+public class AccessPolicyFile {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AccessPolicyFile.class);
+
+    @Value("${access.policy.file}")
+    private String location;
+
+    private final Gson gson;
+
+    private long lastModified = -1;
+    private long lastSize = -1;
+
+    public AccessPolicyFile(Gson gson) {
+        this.gson = gson;
+    }
+
+    public boolean isConfigured() {
+        return !StringUtils.isEmpty(location);
+    }
+
+    public Optional<List<AccessRule>> readIfChanged() throws IOException {
+        if (!isConfigured()) {
+            return Optional.empty();
+        }
+
+        Path path = Paths.get(location);
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long modified = attributes.lastModifiedTime().toMillis();
+        if (modified == lastModified && attributes.size() == lastSize) {
+            return Optional.empty();
+        }
+
+        List<AccessRule> rules;
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            Definition definition = gson.fromJson(reader, Definition.class);
+            rules = definition == null || definition.getRules() == null
+                    ? Collections.emptyList() : definition.getRules();
+        }
+        validate(rules);
+
+        lastModified = modified;
+        lastSize = attributes.size();
+        LOG.info("read {} access rules from {}", rules.size(), location);
+        return Optional.of(rules);
+    }
+
+    private void validate(List<AccessRule> rules) {
+        for (AccessRule rule : rules) {
+            if (rule == null || rule.getAccess() == null
+                    || rule.getPattern() == null || !rule.getPattern().startsWith("/")) {
+                throw new IllegalArgumentException("access rules need an absolute pattern and a known access level");
+            }
+        }
+    }
+
+    @Getter
+    @Setter
+    private static class Definition {
+        private List<AccessRule> rules;
+    }
+}
@@ -0,0 +1,16 @@
+package you.shall.not.pass.filter.staticresource;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import you.shall.not.pass.domain.Access;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccessRule {
+    private String pattern;
+    private Access access;
+}
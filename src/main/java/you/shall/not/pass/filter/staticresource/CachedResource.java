@@ -0,0 +1,65 @@
+package you.shall.not.pass.filter.staticresource;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A static resource held in memory with its encoded variants, each carrying its own ETag.
+ */
+@Getter
+@AllArgsConstructor
+public class CachedResource {
+
+    private final String contentType;
+    private final Variant identity;
+    private final Variant gzip;
+    private final Variant brotli;
+
+    public boolean hasEncodedVariants() {
+        return gzip != null || brotli != null;
+    }
+
+    public Variant select(String acceptEncoding) {
+        if (brotli != null && accepts(acceptEncoding, brotli.getEncoding())) {
+            return brotli;
+        }
+        if (gzip != null && accepts(acceptEncoding, gzip.getEncoding())) {
+            return gzip;
+        }
+        return identity;
+    }
+
+    static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            int parameters = part.indexOf(';');
+            String name = (parameters < 0 ? part : part.substring(0, parameters)).trim();
+            if (name.equalsIgnoreCase(coding)) {
+                return parameters < 0 || !isZeroQuality(part.substring(parameters + 1));
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZeroQuality(String parameters) {
+        String parameter = parameters.trim();
+        if (!parameter.startsWith("q=")) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(parameter.substring(2).trim()) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Variant {
+        private final String encoding;
+        private final String etag;
+        private final byte[] body;
+    }
+}
@@ -0,0 +1,42 @@
+package you.shall.not.pass.filter.staticresource;
+
+import you.shall.not.pass.service.HexEncoder;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Strong ETags from a content hash, and the If-None-Match check against them.
+ */
+public final class EntityTags {
+
+    private static final int HASH_BYTES = 16;
+
+    private EntityTags() {
+    }
+
+    public static String of(byte[] body, String suffix) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexEncoder.encode(hash, 0, HASH_BYTES) + suffix + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("unable to hash entity", e);
+        }
+    }
+
+    public static boolean isNotModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
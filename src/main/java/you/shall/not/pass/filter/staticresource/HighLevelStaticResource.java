@@ -3,8 +3,6 @@ package you.shall.not.pass.filter.staticresource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 import you.shall.not.pass.domain.Access;
 
@@ -16,9 +14,6 @@ public class HighLevelStaticResource implements StaticResourceValidator {
 
     private static final Logger LOG = LoggerFactory.getLogger(HighLevelStaticResource.class);
 
-    @Value("classpath:static/Level2/**")
-    private Resource[] level2;
-
     private final StaticResourceService staticResourceService;
 
     private List<String> staticResources;
@@ -30,16 +25,19 @@ public class HighLevelStaticResource implements StaticResourceValidator {
 
     @PostConstruct
     public void setList() {
-        staticResources = staticResourceService.resolveStaticResources(level2);
+        staticResources = staticResourceService.getStaticResources(requires());
         LOG.info("{} level resources: {}", requires(), staticResources);
     }
 
     @Override
     public boolean isApplicable(String requestUri) {
-        boolean isApplicable = staticResources.stream().
+        return staticResources.stream().
                 anyMatch(s -> s.equalsIgnoreCase(requestUri));
-        LOG.info("matches {} resource: {}", requires(), isApplicable);
-        return isApplicable;
+    }
+
+    @Override
+    public List<String> getStaticResources() {
+        return staticResources;
     }
 
     @Override
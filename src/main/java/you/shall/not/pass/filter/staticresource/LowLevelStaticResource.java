@@ -3,8 +3,6 @@ package you.shall.not.pass.filter.staticresource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 import you.shall.not.pass.domain.Access;
 import javax.annotation.PostConstruct;
@@ -15,9 +13,6 @@ public class LowLevelStaticResource implements StaticResourceValidator {
 
     private static final Logger LOG = LoggerFactory.getLogger(LowLevelStaticResource.class);
 
-    @Value("classpath:static/Level1/**")
-    private Resource[] level1;
-
     private final StaticResourceService staticResourceService;
 
     private List<String> staticResources;
@@ -29,16 +24,19 @@ public class LowLevelStaticResource implements StaticResourceValidator {
 
     @PostConstruct
     public void setList() {
-        staticResources = staticResourceService.resolveStaticResources(level1);
+        staticResources = staticResourceService.getStaticResources(requires());
         LOG.info("{} level resources: {}", requires(), staticResources);
     }
 
     @Override
     public boolean isApplicable(String requestUri) {
-        boolean isApplicable = staticResources.stream().
+        return staticResources.stream().
                 anyMatch(s -> s.equalsIgnoreCase(requestUri));
-        LOG.info("matches {} resource: {}", requires(), isApplicable);
-        return isApplicable;
+    }
+
+    @Override
+    public List<String> getStaticResources() {
+        return staticResources;
     }
 
     @Override
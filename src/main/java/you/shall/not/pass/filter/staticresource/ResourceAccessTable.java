@@ -0,0 +1,61 @@
+package you.shall.not.pass.filter.staticresource;
+
+import you.shall.not.pass.domain.Access;
+
+import java.util.Map;
+
+/**
+ * Immutable open-addressing table from resource path to required access. Keys are compared with
+ * {@link String#equalsIgnoreCase(String)} semantics, so lookups never case-fold into a new string.
+ */
+final class ResourceAccessTable {
+
+    private final String[] keys;
+    private final Access[] values;
+    private final int mask;
+    private final int size;
+
+    ResourceAccessTable(Map<String, Access> entries) {
+        int capacity = Integer.highestOneBit(Math.max(2, entries.size()) * 2 - 1) << 1;
+        this.keys = new String[capacity];
+        this.values = new Access[capacity];
+        this.mask = capacity - 1;
+        this.size = entries.size();
+
+        for (Map.Entry<String, Access> entry : entries.entrySet()) {
+            int slot = hash(entry.getKey()) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = entry.getKey();
+            values[slot] = entry.getValue();
+        }
+    }
+
+    Access get(String path) {
+        if (path == null) {
+            return null;
+        }
+        int slot = hash(path) & mask;
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (key.length() == path.length() && key.equalsIgnoreCase(path)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    static int hash(String path) {
+        int hash = 0;
+        for (int i = 0; i < path.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(path.charAt(i)));
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
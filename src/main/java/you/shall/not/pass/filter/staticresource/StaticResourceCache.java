@@ -0,0 +1,105 @@
+package you.shall.not.pass.filter.staticresource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Static resources read once at startup, keyed by request path. Gzip variants are compressed here and only kept
+ * when they save at least a tenth of the size, brotli variants are taken from a prebuilt {@code .br} file next to
+ * the resource as the JDK has no brotli encoder. Resources above {@code static.cache.max.file.bytes} are left to
+ * the default resource handler.
+ */
+@Component
+public class StaticResourceCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StaticResourceCache.class);
+
+    private static final String BROTLI_SUFFIX = ".br";
+
+    @Value("${static.cache.enabled}")
+    private boolean enabled;
+
+    @Value("${static.cache.max.file.bytes}")
+    private long maxFileBytes;
+
+    private final StaticResourceService resourceService;
+
+    private Map<String, CachedResource> cached = Collections.emptyMap();
+
+    public StaticResourceCache(StaticResourceService resourceService) {
+        this.resourceService = resourceService;
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Map<String, byte[]> contents = new HashMap<>();
+        for (String path : resourceService.getAllStaticResources()) {
+            Resource resource = resourceService.getResource(path);
+            if (!resource.isReadable() || resource.contentLength() > maxFileBytes) {
+                continue;
+            }
+            try (InputStream in = resource.getInputStream()) {
+                contents.put(path, StreamUtils.copyToByteArray(in));
+            }
+        }
+
+        Map<String, CachedResource> entries = new HashMap<>();
+        long bytes = 0;
+        for (Map.Entry<String, byte[]> content : contents.entrySet()) {
+            String path = content.getKey();
+            if (path.endsWith(BROTLI_SUFFIX)) {
+                continue;
+            }
+            CachedResource resource = cache(path, content.getValue(), contents.get(path + BROTLI_SUFFIX));
+            entries.put(path, resource);
+            bytes += size(resource.getIdentity()) + size(resource.getGzip()) + size(resource.getBrotli());
+        }
+        cached = Collections.unmodifiableMap(entries);
+        LOG.info("cached {} static resources in {} KB", cached.size(), bytes / 1024);
+    }
+
+    public Optional<CachedResource> find(String path) {
+        return path == null ? Optional.empty() : Optional.ofNullable(cached.get(StaticResourceManifest.decodePath(path)));
+    }
+
+    private static CachedResource cache(String path, byte[] body, byte[] brotli) throws IOException {
+        byte[] gzip = gzip(body);
+        return new CachedResource(
+                MediaTypeFactory.getMediaType(path).orElse(MediaType.APPLICATION_OCTET_STREAM).toString(),
+                new CachedResource.Variant(null, EntityTags.of(body, ""), body),
+                gzip.length < body.length - body.length / 10
+                        ? new CachedResource.Variant("gzip", EntityTags.of(body, "-gzip"), gzip) : null,
+                brotli != null ? new CachedResource.Variant("br", EntityTags.of(body, "-br"), brotli) : null);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static int size(CachedResource.Variant variant) {
+        return variant == null ? 0 : variant.getBody().length;
+    }
+}
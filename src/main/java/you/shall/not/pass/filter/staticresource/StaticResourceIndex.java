@@ -0,0 +1,90 @@
+package you.shall.not.pass.filter.staticresource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import you.shall.not.pass.domain.Access;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+@Component
+public class StaticResourceIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StaticResourceIndex.class);
+
+    private static final Map<Access, Optional<Access>> REQUIRED = new EnumMap<>(Access.class);
+
+    static {
+        for (Access access : Access.values()) {
+            REQUIRED.put(access, Optional.of(access));
+        }
+    }
+
+    private final List<StaticResourceValidator> resourcesValidators;
+    private final AccessPolicyFile policyFile;
+
+    private Map<String, Access> builtInResources;
+    private volatile AccessPolicy policy;
+
+    @Autowired
+    public StaticResourceIndex(List<StaticResourceValidator> resourcesValidators, AccessPolicyFile policyFile) {
+        this.resourcesValidators = resourcesValidators;
+        this.policyFile = policyFile;
+    }
+
+    @PostConstruct
+    public void buildIndex() {
+        Map<String, Access> entries = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (StaticResourceValidator validator : resourcesValidators) {
+            for (String resource : validator.getStaticResources()) {
+                entries.merge(resource, validator.requires(), StaticResourceIndex::strictest);
+            }
+        }
+        builtInResources = Collections.unmodifiableMap(entries);
+        policy = AccessPolicy.compile(builtInResources, Collections.emptyList());
+
+        if (policyFile.isConfigured()) {
+            try {
+                policyFile.readIfChanged().ifPresent(this::swap);
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalStateException("unable to load access policy file", e);
+            }
+        }
+        LOG.info("indexed {} protected resources and rules", policy.size());
+    }
+
+    @Scheduled(fixedDelayString = "#{${access.policy.refresh.seconds} * 1000}")
+    public void refreshPolicy() {
+        if (!policyFile.isConfigured()) {
+            return;
+        }
+        try {
+            policyFile.readIfChanged().ifPresent(this::swap);
+        } catch (IOException | RuntimeException e) {
+            LOG.error("access policy reload failed, keeping current policy", e);
+        }
+    }
+
+    public Optional<Access> requiredAccess(String requestUri) {
+        Access access = policy.requiredAccess(StaticResourceManifest.normalizePath(requestUri));
+        return access == null ? Optional.empty() : REQUIRED.get(access);
+    }
+
+    private void swap(List<AccessRule> rules) {
+        policy = AccessPolicy.compile(builtInResources, rules);
+        LOG.info("access policy swapped, {} rules from policy file", rules.size());
+    }
+
+    private static Access strictest(Access current, Access candidate) {
+        return current.isLevelHigherThanSessionAccessLevel(candidate) ? current : candidate;
+    }
+}
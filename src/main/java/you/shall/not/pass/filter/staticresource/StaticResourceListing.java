@@ -0,0 +1,49 @@
+package you.shall.not.pass.filter.staticresource;
+
+import com.google.gson.Gson;
+import org.springframework.stereotype.Component;
+import you.shall.not.pass.dto.StaticResources;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The /resources listing, serialized once at startup as the hosted resources only change on deploy.
+ */
+@Component
+public class StaticResourceListing {
+
+    private final StaticResourceService resourceService;
+    private final Gson gson;
+
+    private byte[] body;
+    private String etag;
+
+    public StaticResourceListing(StaticResourceService resourceService, Gson gson) {
+        this.resourceService = resourceService;
+        this.gson = gson;
+    }
+
+    @PostConstruct
+    public void serialize() {
+        StaticResources resources = StaticResources.builder()
+                .resources(resourceService.getAllStaticResources()).build();
+        body = gson.toJson(resources).getBytes(StandardCharsets.UTF_8);
+        etag = EntityTags.of(body, "");
+    }
+
+    /**
+     * The UTF-8 JSON body, shared by every request and never to be modified.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public boolean isNotModified(String ifNoneMatch) {
+        return EntityTags.isNotModified(ifNoneMatch, etag);
+    }
+}
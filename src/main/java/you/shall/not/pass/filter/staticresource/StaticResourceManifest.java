@@ -0,0 +1,196 @@
+package you.shall.not.pass.filter.staticresource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+import you.shall.not.pass.domain.Access;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Every hosted static path with the access level it requires, one {@code level<TAB>path} line each. The build writes
+ * it into the artifact with {@link #main}, so startup reads a single classpath entry instead of scanning the static
+ * tree. A resource requires the level its top directory is named after and is public ({@value #PUBLIC}) elsewhere.
+ * Paths are stored decoded, so request URIs go through {@link #decodePath} before a lookup and through
+ * {@link #normalizePath} before an access check.
+ */
+public final class StaticResourceManifest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StaticResourceManifest.class);
+
+    public static final String LOCATION = "META-INF/static-resources.manifest";
+
+    private static final String PUBLIC = "-";
+    private static final char SEPARATOR = '\t';
+
+    private final Map<String, Access> entries;
+    private final List<String> resources;
+    private final Map<Access, List<String>> byLevel;
+
+    private StaticResourceManifest(Map<String, Access> entries, List<String> resources,
+                                   Map<Access, List<String>> byLevel) {
+        this.entries = entries;
+        this.resources = Collections.unmodifiableList(resources);
+        this.byLevel = byLevel;
+    }
+
+    public List<String> getResources() {
+        return resources;
+    }
+
+    public List<String> getResources(Access level) {
+        return byLevel.getOrDefault(level, Collections.emptyList());
+    }
+
+    public static StaticResourceManifest of(Collection<String> paths) {
+        Map<String, Access> sorted = new TreeMap<>();
+        for (String path : paths) {
+            sorted.put(path, levelOf(path));
+        }
+        return build(sorted);
+    }
+
+    public static Optional<StaticResourceManifest> read(ClassLoader classLoader) throws IOException {
+        InputStream in = classLoader.getResourceAsStream(LOCATION);
+        if (in == null) {
+            return Optional.empty();
+        }
+        Map<String, Access> entries = new TreeMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(SEPARATOR);
+                if (separator < 0) {
+                    continue;
+                }
+                String level = line.substring(0, separator);
+                entries.put(line.substring(separator + 1), PUBLIC.equals(level) ? null : Access.valueOf(level));
+            }
+        }
+        return Optional.of(build(entries));
+    }
+
+    public void write(Writer out) throws IOException {
+        for (Map.Entry<String, Access> entry : entries.entrySet()) {
+            out.write(entry.getValue() == null ? PUBLIC : entry.getValue().name());
+            out.write(SEPARATOR);
+            out.write(entry.getKey());
+            out.write('\n');
+        }
+    }
+
+    /**
+     * The decoded form of a raw request URI or resource URI, as the resource handler resolves it. A malformed escape
+     * is left as is, like the handler does.
+     */
+    public static String decodePath(String path) {
+        if (path == null || path.indexOf('%') < 0) {
+            return path;
+        }
+        try {
+            return StringUtils.uriDecode(path, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return path;
+        }
+    }
+
+    /**
+     * The decoded path with backslashes turned into slashes, leading blanks and duplicate slashes dropped and
+     * {@code .}/{@code ..} segments resolved, which is the file the resource handler ends up serving for it. Access
+     * has to be decided on this form, the raw {@code //Level1/..} or {@code /css/../Level1/..} would look public.
+     */
+    public static String normalizePath(String path) {
+        String decoded = decodePath(path);
+        if (decoded == null || isNormalized(decoded)) {
+            return decoded;
+        }
+        String cleaned = StringUtils.replace(decoded, "\\", "/");
+        int start = 0;
+        while (start < cleaned.length() && (cleaned.charAt(start) == '/' || cleaned.charAt(start) <= ' ')) {
+            start++;
+        }
+        cleaned = "/" + cleaned.substring(start);
+        while (cleaned.contains("//")) {
+            cleaned = StringUtils.replace(cleaned, "//", "/");
+        }
+        cleaned = StringUtils.cleanPath(cleaned);
+        while (cleaned.startsWith("/../")) {
+            cleaned = cleaned.substring(3);
+        }
+        return cleaned;
+    }
+
+    private static boolean isNormalized(String path) {
+        return path.startsWith("/") && path.length() > 1 && path.charAt(1) > ' '
+                && path.indexOf('\\') < 0 && !path.contains("//") && !path.contains("/.");
+    }
+
+    static Access levelOf(String path) {
+        int end = path.indexOf('/', 1);
+        if (!path.startsWith("/") || end < 0) {
+            return null;
+        }
+        String directory = path.substring(1, end);
+        for (Access access : Access.values()) {
+            if (access.name().equals(directory)) {
+                return access;
+            }
+        }
+        return null;
+    }
+
+    private static StaticResourceManifest build(Map<String, Access> entries) {
+        List<String> resources = new ArrayList<>(entries.size());
+        Map<Access, List<String>> byLevel = new EnumMap<>(Access.class);
+        entries.forEach((path, level) -> {
+            resources.add(path);
+            if (level != null) {
+                byLevel.computeIfAbsent(level, l -> new ArrayList<>()).add(path);
+            }
+        });
+        return new StaticResourceManifest(entries, resources, byLevel);
+    }
+
+    /**
+     * Writes the manifest of a static resource directory, run by the build once resources are copied.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("usage: StaticResourceManifest <static directory> <manifest file>");
+        }
+        Path root = Paths.get(args[0]);
+        Path target = Paths.get(args[1]);
+
+        List<String> paths = new ArrayList<>();
+        if (Files.isDirectory(root)) {
+            try (Stream<Path> files = Files.walk(root)) {
+                files.filter(Files::isRegularFile)
+                        .forEach(file -> paths.add("/" + root.relativize(file).toString().replace(File.separatorChar, '/')));
+            }
+        }
+
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        try (Writer out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            of(paths).write(out);
+        }
+        LOG.info("wrote {} static resources to {}", paths.size(), target);
+    }
+}
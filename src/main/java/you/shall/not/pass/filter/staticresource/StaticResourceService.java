@@ -1,43 +1,77 @@
 package you.shall.not.pass.filter.staticresource;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternUtils;
 import org.springframework.stereotype.Component;
+import you.shall.not.pass.domain.Access;
 
+import javax.annotation.PostConstruct;
 import java.io.IOException;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
+/**
+ * Hosted static resources as listed by the {@link StaticResourceManifest} the build writes into the artifact.
+ * Without one, e.g. when running from an IDE that skipped the build step, the static tree is scanned once instead.
+ */
 @Component
 public class StaticResourceService {
 
-    @Value("classpath:static/**")
-    private Resource[] resources;
+    private static final Logger LOG = LoggerFactory.getLogger(StaticResourceService.class);
 
     @Value("${static.resources}")
     private String context;
 
-    public List<String> resolveStaticResources(Resource[] level) {
-        return Arrays.stream(level)
-                .filter(resource -> {
-                    try {
-                        return resource.getFile().isFile();
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                }).map(resource -> {
-                    try {
-                        String uri = resource.getURI().toString();
-                        return uri.substring(uri.indexOf(context) + context.length());
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                }).collect(Collectors.toList());
+    private final ResourceLoader resourceLoader;
+
+    private StaticResourceManifest manifest;
+
+    public StaticResourceService(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    @PostConstruct
+    public void loadManifest() throws IOException {
+        Optional<StaticResourceManifest> built = StaticResourceManifest.read(resourceLoader.getClassLoader());
+        if (built.isPresent()) {
+            manifest = built.get();
+            LOG.info("loaded {} static resources from {}", manifest.getResources().size(), StaticResourceManifest.LOCATION);
+        } else {
+            LOG.warn("no {} on the classpath, scanning {} for static resources", StaticResourceManifest.LOCATION, location());
+            manifest = StaticResourceManifest.of(scan());
+        }
+    }
+
+    public List<String> getStaticResources(Access level) {
+        return manifest.getResources(level);
     }
 
     public List<String> getAllStaticResources() {
-        return resolveStaticResources(resources);
+        return manifest.getResources();
+    }
+
+    public Resource getResource(String path) {
+        return resourceLoader.getResource(location() + path);
+    }
+
+    private List<String> scan() throws IOException {
+        List<String> paths = new ArrayList<>();
+        for (Resource resource : ResourcePatternUtils.getResourcePatternResolver(resourceLoader).getResources(location() + "/**")) {
+            String uri = resource.getURI().toString();
+            if (!uri.endsWith("/") && resource.isReadable()) {
+                paths.add(StaticResourceManifest.decodePath(uri.substring(uri.indexOf(context) + context.length())));
+            }
+        }
+        return paths;
+    }
+
+    private String location() {
+        return ResourceLoader.CLASSPATH_URL_PREFIX + context;
     }
 
 }
@@ -2,8 +2,11 @@ package you.shall.not.pass.filter.staticresource;
 
 import you.shall.not.pass.domain.Access;
 
+import java.util.List;
+
 public interface StaticResourceValidator {
     boolean isApplicable(String requestUri);
     Access requires();
     void setList();
+    List<String> getStaticResources();
 }
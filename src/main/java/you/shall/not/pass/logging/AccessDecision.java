@@ -0,0 +1,7 @@
+package you.shall.not.pass.logging;
+
+public enum AccessDecision {
+    ALLOWED,
+    ACCESS_VIOLATION,
+    CSRF_VIOLATION
+}
@@ -0,0 +1,16 @@
+package you.shall.not.pass.logging;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import you.shall.not.pass.domain.Access;
+
+@Getter
+@AllArgsConstructor
+public class AccessEvent {
+    private final String uri;
+    private final AccessDecision decision;
+    private final Access required;
+    private final Access granted;
+    private final String sessionToken;
+    private final long durationNanos;
+}
@@ -0,0 +1,128 @@
+package you.shall.not.pass.logging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import you.shall.not.pass.domain.Access;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes one structured event per gateway decision. Request threads only offer to a bounded
+ * buffer and never wait for it; a single writer thread formats, hashes session tokens and logs.
+ */
+@Service
+public class AccessLogService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AccessLogService.class);
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("you.shall.not.pass.access");
+
+    private static final int TOKEN_HASH_BYTES = 8;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Value("${access.log.buffer.size}")
+    private int bufferSize;
+
+    @Value("${access.log.sample.rate}")
+    private double sampleRate;
+
+    private final Counter dropped;
+
+    private BlockingQueue<AccessEvent> buffer;
+    private Thread writer;
+    private MessageDigest digest;
+    private volatile boolean running;
+
+    public AccessLogService(MeterRegistry meterRegistry) {
+        this.dropped = meterRegistry.counter("gateway.access.log.dropped");
+    }
+
+    @PostConstruct
+    public void start() throws NoSuchAlgorithmException {
+        buffer = new ArrayBlockingQueue<>(bufferSize);
+        digest = MessageDigest.getInstance("SHA-256");
+
+        running = true;
+        writer = new Thread(this::drain, "access-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(1));
+    }
+
+    public void record(AccessDecision decision, String uri, Access required, Access granted,
+                       String sessionToken, long startNanos) {
+        if (decision == AccessDecision.ALLOWED && !sampled()) {
+            return;
+        }
+        AccessEvent event = new AccessEvent(uri, decision, required, granted, sessionToken,
+                System.nanoTime() - startNanos);
+        if (!buffer.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private void drain() {
+        long reportedDrops = 0;
+        while (running || !buffer.isEmpty()) {
+            try {
+                AccessEvent event = buffer.poll(1, TimeUnit.SECONDS);
+                if (event != null) {
+                    write(event);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    buffer.forEach(this::write);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("unable to write access event", e);
+            }
+
+            long drops = (long) dropped.count();
+            if (drops != reportedDrops) {
+                LOG.warn("access log buffer full, {} events dropped so far", drops);
+                reportedDrops = drops;
+            }
+        }
+    }
+
+    private void write(AccessEvent event) {
+        ACCESS_LOG.info("uri={} decision={} required={} granted={} session={} durationMicros={}",
+                event.getUri(), event.getDecision(), event.getRequired(), event.getGranted(),
+                hash(event.getSessionToken()), TimeUnit.NANOSECONDS.toMicros(event.getDurationNanos()));
+    }
+
+    private String hash(String token) {
+        if (token == null) {
+            return "-";
+        }
+        byte[] hashed = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+        char[] hex = new char[TOKEN_HASH_BYTES * 2];
+        for (int i = 0; i < TOKEN_HASH_BYTES; i++) {
+            hex[i * 2] = HEX[(hashed[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[hashed[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,44 @@
+package you.shall.not.pass.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import you.shall.not.pass.logging.AccessDecision;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class GatewayMetrics {
+
+    private final Map<GatewayStage, Timer> stages = new EnumMap<>(GatewayStage.class);
+    private final Map<AccessDecision, Timer> decisions = new EnumMap<>(AccessDecision.class);
+
+    public GatewayMetrics(MeterRegistry meterRegistry) {
+        for (GatewayStage stage : GatewayStage.values()) {
+            stages.put(stage, histogram("gateway.stage", "stage", stage.getTag(), meterRegistry));
+        }
+        for (AccessDecision decision : AccessDecision.values()) {
+            decisions.put(decision, histogram("gateway.decision", "decision", decision.name().toLowerCase(), meterRegistry));
+        }
+    }
+
+    public void record(GatewayStage stage, long startNanos) {
+        stages.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void record(AccessDecision decision, long startNanos) {
+        decisions.get(decision).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer histogram(String name, String tag, String value, MeterRegistry meterRegistry) {
+        return Timer.builder(name)
+                .tag(tag, value)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(500))
+                .maximumExpectedValue(Duration.ofSeconds(2))
+                .register(meterRegistry);
+    }
+}
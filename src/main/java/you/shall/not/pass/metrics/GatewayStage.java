@@ -0,0 +1,19 @@
+package you.shall.not.pass.metrics;
+
+public enum GatewayStage {
+    COOKIE_PARSE("cookie_parse"),
+    ANONYMOUS_SESSION("anonymous_session"),
+    RESOURCE_MATCH("resource_match"),
+    SESSION_LOOKUP("session_lookup"),
+    CSRF_VALIDATION("csrf_validation");
+
+    private final String tag;
+
+    GatewayStage(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,80 @@
+package you.shall.not.pass.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every command sent by the Mongo client, tagged by command, collection and outcome.
+ */
+@Component
+public class MongoCommandMetrics implements CommandListener {
+
+    private static final String UNKNOWN_COLLECTION = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Integer, String> collections = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, Timer>>> timers = new ConcurrentHashMap<>();
+
+    public MongoCommandMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        collections.put(event.getRequestId(), collection(event.getCommandName(), event.getCommand()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        record(event.getRequestId(), event.getCommandName(), "success", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        record(event.getRequestId(), event.getCommandName(), "failed", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void record(int requestId, String command, String status, long elapsedNanos) {
+        String collection = collections.remove(requestId);
+        timer(command, collection == null ? UNKNOWN_COLLECTION : collection, status)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // registered once per command, collection and status, later commands only look the timer up
+    private Timer timer(String command, String collection, String status) {
+        ConcurrentMap<String, ConcurrentMap<String, Timer>> byCollection = timers.get(command);
+        if (byCollection == null) {
+            byCollection = timers.computeIfAbsent(command, key -> new ConcurrentHashMap<>());
+        }
+        ConcurrentMap<String, Timer> byStatus = byCollection.get(collection);
+        if (byStatus == null) {
+            byStatus = byCollection.computeIfAbsent(collection, key -> new ConcurrentHashMap<>());
+        }
+        Timer timer = byStatus.get(status);
+        return timer != null ? timer : byStatus.computeIfAbsent(status, key -> Timer.builder("gateway.mongo.commands")
+                .tag("command", command)
+                .tag("collection", collection)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(5))
+                .register(meterRegistry));
+    }
+
+    private static String collection(String command, BsonDocument document) {
+        BsonValue target = "getMore".equals(command) ? document.get("collection") : document.get(command);
+        return target != null && target.isString() ? target.asString().getValue() : UNKNOWN_COLLECTION;
+    }
+}
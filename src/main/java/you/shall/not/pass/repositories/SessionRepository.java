@@ -1,10 +1,15 @@
 package you.shall.not.pass.repositories;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import you.shall.not.pass.domain.Access;
 import you.shall.not.pass.domain.Session;
 
+import java.util.Optional;
+
 public interface SessionRepository extends MongoRepository<Session, String> {
 
 	Session findByToken(String token);
+
+	Optional<Session> findFirstByUserIdAndGrantOrderByDateDesc(String userId, Access grant);
 	
 }
@@ -3,5 +3,10 @@ package you.shall.not.pass.repositories;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import you.shall.not.pass.domain.User;
 
+import java.util.Optional;
+
 public interface UserRepository extends MongoRepository<User, String> {
+
+    Optional<User> findByUserName(String userName);
+
 }
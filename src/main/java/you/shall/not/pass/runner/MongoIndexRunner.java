@@ -0,0 +1,44 @@
+package you.shall.not.pass.runner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+import you.shall.not.pass.domain.Session;
+import you.shall.not.pass.domain.StoredSession;
+import you.shall.not.pass.domain.User;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MongoIndexRunner implements ApplicationRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MongoIndexRunner.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoIndexRunner(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments applicationArguments) {
+        ensureIndexes(StoredSession.class);
+        ensureIndexes(Session.class);
+        ensureIndexes(User.class);
+    }
+
+    private void ensureIndexes(Class<?> entity) {
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        IndexOperations indexOperations = mongoTemplate.indexOps(entity);
+        resolver.resolveIndexFor(entity).forEach(index -> {
+            String name = indexOperations.ensureIndex(index);
+            LOG.info("ensured index {} on {}", name, mongoTemplate.getCollectionName(entity));
+        });
+    }
+}
@@ -4,10 +4,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
-import org.springframework.data.domain.Example;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import you.shall.not.pass.domain.User;
+import you.shall.not.pass.event.UserProvisionedEvent;
 import you.shall.not.pass.properties.UserProperties;
 import you.shall.not.pass.repositories.UserRepository;
 
@@ -19,13 +20,15 @@ public class UserCreationRunner implements ApplicationRunner {
     private final UserRepository resp;
     private final PasswordEncoder passwordEncoder;
     private final UserProperties userProperties;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final Logger LOG = LoggerFactory.getLogger(UserCreationRunner.class);
 
-    public UserCreationRunner(UserRepository resp, PasswordEncoder passwordEncoder, UserProperties userProperties) {
+    public UserCreationRunner(UserRepository resp, PasswordEncoder passwordEncoder, UserProperties userProperties, ApplicationEventPublisher eventPublisher) {
         this.resp = resp;
         this.passwordEncoder = passwordEncoder;
         this.userProperties = userProperties;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -42,15 +45,16 @@ public class UserCreationRunner implements ApplicationRunner {
                         passwordEncoder.encode(
                                 String.valueOf(newUser.getLevel2Password())).toCharArray());
 
-                Example<User> example = Example.of(User.builder().userName(newUser.getUserName()).build());
-                Optional<User> OptionalUser = resp.findOne(example);
+                Optional<User> OptionalUser = resp.findByUserName(newUser.getUserName());
 
                 OptionalUser.ifPresent(user -> {
                     builder.id(user.getId());
                 });
+                builder.version(OptionalUser.map(user -> user.getVersion() + 1).orElse(1L));
 
                 User saved = resp.save(builder.build());
                 LOG.info("User {} created for {}...",saved.getId() , newUser.getUserName());
+                eventPublisher.publishEvent(new UserProvisionedEvent(this, saved.getUserName()));
             }
         } catch (Exception ex) {
             LOG.info("Error running system init", ex);
@@ -0,0 +1,33 @@
+package you.shall.not.pass.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import you.shall.not.pass.service.CustomUserDetailService;
+import you.shall.not.pass.service.SecureTokenService;
+
+/**
+ * Credential checks shared by the servlet and the reactive gateway.
+ */
+@Configuration
+public class AuthenticationConfig {
+
+	@Bean
+	public PasswordEncoder passwordEncoder() {
+		return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+	}
+
+	@Bean
+	public CachingAuthenticationProvider cachingAuthenticationProvider(CustomUserDetailService customUserDetailService,
+																	   SecureTokenService secureTokenService,
+																	   MeterRegistry meterRegistry) {
+		DaoAuthenticationProvider passwordCheck = new DaoAuthenticationProvider();
+		passwordCheck.setUserDetailsService(customUserDetailService);
+		passwordCheck.setPasswordEncoder(passwordEncoder());
+		return new CachingAuthenticationProvider(passwordCheck, secureTokenService, meterRegistry);
+	}
+
+}
@@ -0,0 +1,146 @@
+package you.shall.not.pass.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import you.shall.not.pass.event.UserProvisionedEvent;
+import you.shall.not.pass.service.HexEncoder;
+import you.shall.not.pass.service.ReusePool;
+import you.shall.not.pass.service.SecureTokenService;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers successful Basic logins for a short time so repeat logins skip the password hash check.
+ * Entries are keyed by an HMAC of level#user:password under a per-instance key, so neither the cache
+ * nor a heap dump reveals the password, and they are dropped as soon as the user is re-provisioned.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachingAuthenticationProvider.class);
+
+    public static final String CACHE_NAME = "credentials";
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int SECRET_SIZE = 32;
+
+    @Value("${auth.cache.enabled}")
+    private boolean enabled;
+
+    @Value("${auth.cache.size}")
+    private long maximumSize;
+
+    @Value("${auth.cache.ttl.seconds}")
+    private long ttlSeconds;
+
+    @Value("${spring.threads.virtual.enabled}")
+    private boolean virtualThreads;
+
+    private final AuthenticationProvider delegate;
+    private final SecureTokenService tokenService;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<String, UserDetails> verified;
+    private ReusePool<Mac> macs;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, SecureTokenService tokenService,
+                                         MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.tokenService = tokenService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void setupCache() {
+        if (!enabled) {
+            return;
+        }
+        byte[] keyBytes = new byte[SECRET_SIZE];
+        tokenService.nextBytes(keyBytes);
+        SecretKeySpec key = new SecretKeySpec(keyBytes, MAC_ALGORITHM);
+        macs = ReusePool.of(() -> newMac(key), virtualThreads);
+
+        verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, CACHE_NAME);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (verified == null || authentication.getCredentials() == null) {
+            return delegate.authenticate(authentication);
+        }
+
+        String key = credentialKey(authentication.getName(), authentication.getCredentials().toString());
+        UserDetails principal = verified.getIfPresent(key);
+        if (principal != null) {
+            return authenticated(authentication, principal);
+        }
+
+        Authentication result = delegate.authenticate(authentication);
+        if (result.getPrincipal() instanceof UserDetails) {
+            verified.put(key, (UserDetails) result.getPrincipal());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    @EventListener
+    public void onUserProvisioned(UserProvisionedEvent event) {
+        if (verified == null) {
+            return;
+        }
+        verified.asMap().values().removeIf(principal -> principal.getUsername().equals(event.getUserName()));
+        LOG.debug("dropped cached credentials of {}", event.getUserName());
+    }
+
+    private Authentication authenticated(Authentication request, UserDetails principal) {
+        UsernamePasswordAuthenticationToken result = new UsernamePasswordAuthenticationToken(
+                principal, null, principal.getAuthorities());
+        result.setDetails(request.getDetails());
+        return result;
+    }
+
+    private String credentialKey(String name, String password) {
+        Mac mac = macs.borrow();
+        try {
+            mac.update(name.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) ':');
+            return HexEncoder.encode(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } finally {
+            macs.release(mac);
+        }
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("unable to create credential cache mac", e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package you.shall.not.pass.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManagerAdapter;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+import java.util.Collections;
+
+/**
+ * Reactive counterpart of {@link SecurityConfigAdapter}: stateless basic authentication on /access and on every
+ * actuator endpoint but health. Password checks run through the same caching provider, on the bounded elastic
+ * scheduler so bcrypt never runs on a Netty event loop.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+	@Bean
+	public ReactiveAuthenticationManager reactiveAuthenticationManager(CachingAuthenticationProvider cachingAuthenticationProvider) {
+		return new ReactiveAuthenticationManagerAdapter(
+				new ProviderManager(Collections.singletonList(cachingAuthenticationProvider)));
+	}
+
+	@Bean
+	public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+														 ReactiveAuthenticationManager reactiveAuthenticationManager) {
+		return http.securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+				.csrf()
+				.disable()
+				.httpBasic()
+				.authenticationManager(reactiveAuthenticationManager)
+				.and()
+				.formLogin()
+				.disable()
+				.logout()
+				.disable()
+				.authorizeExchange()
+				.pathMatchers("/access")
+				.authenticated()
+				.pathMatchers("/actuator/health")
+				.permitAll()
+				.pathMatchers("/actuator/**")
+				.authenticated()
+				.anyExchange()
+				.permitAll()
+				.and()
+				.build();
+	}
+
+}
@@ -1,33 +1,25 @@
 package you.shall.not.pass.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Bean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.factory.PasswordEncoderFactories;
-import org.springframework.security.crypto.password.PasswordEncoder;
-import you.shall.not.pass.service.CustomUserDetailService;
 
 
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConfigAdapter extends WebSecurityConfigurerAdapter {
 
-	@Bean
-	public PasswordEncoder passwordEncoder() {
-		return PasswordEncoderFactories.createDelegatingPasswordEncoder();
-	}
-
 	@Autowired
 	public void configureGlobal(AuthenticationManagerBuilder authenticationManagerBuilder,
-								CustomUserDetailService customUserDetailService) throws Exception {
+								CachingAuthenticationProvider cachingAuthenticationProvider) {
 		authenticationManagerBuilder
-				.userDetailsService(customUserDetailService)
-				.passwordEncoder(passwordEncoder());
+				.authenticationProvider(cachingAuthenticationProvider);
 	}
 
 	@Override
@@ -42,7 +34,11 @@ public class SecurityConfigAdapter extends WebSecurityConfigurerAdapter {
 				.disable()
 				.authorizeRequests()
 				.antMatchers("/access")
-				.permitAll();
+				.permitAll()
+				.antMatchers("/actuator/health")
+				.permitAll()
+				.antMatchers("/actuator/**")
+				.authenticated();
 	}
 
 }
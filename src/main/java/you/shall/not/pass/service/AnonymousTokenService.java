@@ -0,0 +1,135 @@
+package you.shall.not.pass.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.domain.Session;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Issues Level0 session tokens that carry their own expiry and a truncated MAC, so anonymous
+ * sessions can be validated without being stored. Layout of the 16 token bytes:
+ * 8 random bytes, 4 byte expiry in epoch seconds, 4 byte HMAC-SHA256 over the first 12.
+ */
+@Service
+public class AnonymousTokenService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AnonymousTokenService.class);
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int RANDOM_SIZE = 8;
+    private static final int SIGNED_SIZE = RANDOM_SIZE + 4;
+    private static final int TOKEN_SIZE = SIGNED_SIZE + 4;
+    private static final int SECRET_SIZE = 32;
+
+    @Value("${session.anonymous.secret}")
+    private String secret;
+
+    @Value("${spring.threads.virtual.enabled}")
+    private boolean virtualThreads;
+
+    private final SecureTokenService tokenService;
+
+    private SecretKeySpec key;
+    private ReusePool<Mac> macs;
+
+    public AnonymousTokenService(SecureTokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @PostConstruct
+    public void setupKey() {
+        byte[] keyBytes;
+        if (StringUtils.isEmpty(secret)) {
+            LOG.warn("no session.anonymous.secret configured, anonymous tokens will only be valid on this instance");
+            keyBytes = new byte[SECRET_SIZE];
+            tokenService.nextBytes(keyBytes);
+        } else {
+            keyBytes = Base64.getDecoder().decode(secret);
+        }
+        key = new SecretKeySpec(keyBytes, MAC_ALGORITHM);
+        macs = ReusePool.of(this::newMac, virtualThreads);
+    }
+
+    public String issue(Date expiry) {
+        byte[] token = new byte[TOKEN_SIZE];
+        tokenService.nextBytes(token);
+        writeInt(token, RANDOM_SIZE, (int) (expiry.getTime() / 1000));
+        writeInt(token, SIGNED_SIZE, sign(token));
+        return HexEncoder.encode(token);
+    }
+
+    public boolean verify(String token) {
+        return decodeSigned(token) != null;
+    }
+
+    public Optional<Session> decode(String token) {
+        byte[] bytes = decodeSigned(token);
+        if (bytes == null) {
+            return Optional.empty();
+        }
+        long expiry = (readInt(bytes, RANDOM_SIZE) & 0xFFFFFFFFL) * 1000;
+        return Optional.of(Session.builder()
+                .token(token)
+                .grant(Access.Level0)
+                .date(new Date(expiry))
+                .build());
+    }
+
+    private byte[] decodeSigned(String token) {
+        byte[] bytes = token == null || token.length() != TOKEN_SIZE * 2 ? null : HexEncoder.decode(token);
+        if (bytes == null) {
+            return null;
+        }
+        byte[] expected = new byte[4];
+        writeInt(expected, 0, sign(bytes));
+        byte[] received = new byte[4];
+        System.arraycopy(bytes, SIGNED_SIZE, received, 0, 4);
+        return MessageDigest.isEqual(expected, received) ? bytes : null;
+    }
+
+    private int sign(byte[] token) {
+        Mac mac = macs.borrow();
+        try {
+            mac.update(token, 0, SIGNED_SIZE);
+            return readInt(mac.doFinal(), 0);
+        } finally {
+            macs.release(mac);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("unable to create anonymous token mac", e);
+        }
+    }
+
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] source, int offset) {
+        return ((source[offset] & 0xFF) << 24)
+                | ((source[offset + 1] & 0xFF) << 16)
+                | ((source[offset + 2] & 0xFF) << 8)
+                | (source[offset + 3] & 0xFF);
+    }
+}
@@ -1,41 +1,51 @@
 package you.shall.not.pass.service;
 
-import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 
-import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Service
 public class CookieService {
 
+    private static final String COOKIE_ATTRIBUTES = "; SameSite=Strict; Path=/; HttpOnly; Max-Age=";
+    private static final int MAX_AGE_DIGITS = 11;
+
+    private final ConcurrentMap<String, String> prefixes = new ConcurrentHashMap<>();
+
+    public RequestCookies getCookies(HttpServletRequest req) {
+        return RequestCookies.of(req);
+    }
+
     public String getCookieValue(HttpServletRequest req, String cookieName) {
-        if (req.getCookies() == null) {
-            return null;
-        }
-        return Arrays.stream(req.getCookies())
-                .filter(c -> c.getName().equals(cookieName))
-                .findFirst()
-                .map(Cookie::getValue)
-                .orElse(null);
+        return getCookies(req).get(cookieName);
     }
 
     public String createCookie(String name, String token, int expireInSeconds) {
-        List<String> headerValues = new ArrayList<>();
-        headerValues.add(name + "=" + token);
-        headerValues.add("SameSite=Strict");
-        headerValues.add("Path=/");
-        headerValues.add("HttpOnly");
-        headerValues.add("Max-Age=" + expireInSeconds);
-        return headerValues.stream().collect(Collectors.joining("; "));
+        String prefix = prefixFor(name);
+        return new StringBuilder(prefix.length() + token.length() + COOKIE_ATTRIBUTES.length() + MAX_AGE_DIGITS)
+                .append(prefix)
+                .append(token)
+                .append(COOKIE_ATTRIBUTES)
+                .append(expireInSeconds)
+                .toString();
     }
 
     public void addCookie(String cookie, HttpServletResponse response) {
         response.addHeader("Set-Cookie", cookie);
     }
+
+    private String prefixFor(String name) {
+        String prefix = prefixes.get(name);
+        if (prefix == null) {
+            prefix = name + "=";
+            String existing = prefixes.putIfAbsent(name, prefix);
+            if (existing != null) {
+                prefix = existing;
+            }
+        }
+        return prefix;
+    }
 }
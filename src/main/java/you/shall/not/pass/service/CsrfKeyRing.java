@@ -0,0 +1,158 @@
+package you.shall.not.pass.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+/**
+ * CSRF signing keys. Every {@code csrf.key.rotation.seconds} a new key is derived from the master
+ * secret, so instances sharing the secret rotate together without coordination. A token is always
+ * verified with the key of the window it was issued in, and the previous window's key is only
+ * accepted for one CSRF expiry window after rotation.
+ */
+@Component
+public class CsrfKeyRing {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CsrfKeyRing.class);
+
+    public static final int MAC_SIZE = 16;
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int SECRET_SIZE = 32;
+    private static final int MAX_SIGNED_LENGTH = 64;
+
+    @Value("${csrf.secret}")
+    private String secret;
+
+    @Value("${csrf.key.rotation.seconds}")
+    private long rotationSeconds;
+
+    @Value("${csrf.expiry.seconds}")
+    private long expirySeconds;
+
+    @Value("${spring.threads.virtual.enabled}")
+    private boolean virtualThreads;
+
+    private final SecureTokenService tokenService;
+
+    private SecretKeySpec masterKey;
+    private ReusePool<Signer> signers;
+
+    public CsrfKeyRing(SecureTokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @PostConstruct
+    public void setupKeys() {
+        if (rotationSeconds > 0 && rotationSeconds < expirySeconds) {
+            throw new IllegalStateException("csrf.key.rotation.seconds must not be shorter than csrf.expiry.seconds");
+        }
+
+        byte[] keyBytes;
+        if (StringUtils.isEmpty(secret)) {
+            LOG.warn("no csrf.secret configured, csrf tokens will only be valid on this instance");
+            keyBytes = new byte[SECRET_SIZE];
+            tokenService.nextBytes(keyBytes);
+        } else {
+            keyBytes = Base64.getDecoder().decode(secret);
+        }
+        masterKey = new SecretKeySpec(keyBytes, MAC_ALGORITHM);
+        signers = ReusePool.of(Signer::new, virtualThreads);
+    }
+
+    public long window(long epochSeconds) {
+        return rotationSeconds > 0 ? Math.floorDiv(epochSeconds, rotationSeconds) : 0;
+    }
+
+    public boolean isAcceptedWindow(long window, long nowSeconds) {
+        long current = window(nowSeconds);
+        if (window == current) {
+            return true;
+        }
+        return window == current - 1 && nowSeconds < current * rotationSeconds + expirySeconds;
+    }
+
+    /**
+     * Signs the first {@code length} ASCII characters of {@code token} with the key of {@code window}.
+     * On platform threads the returned buffer belongs to the calling thread and is overwritten by its next call.
+     */
+    public byte[] sign(String token, int length, long window) {
+        if (length > MAX_SIGNED_LENGTH) {
+            throw new IllegalArgumentException("csrf payload too long to sign");
+        }
+        Signer signer = signers.borrow();
+        try {
+            byte[] input = signer.input;
+            for (int i = 0; i < length; i++) {
+                input[i] = (byte) token.charAt(i);
+            }
+            Mac mac = signer.macFor(window);
+            mac.update(input, 0, length);
+            mac.doFinal(signer.output, 0);
+            // a pooled signer goes to the next request as soon as it is released
+            return signers.isPerThread() ? signer.output : signer.output.clone();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("unable to sign csrf token", e);
+        } finally {
+            signers.release(signer);
+        }
+    }
+
+    private SecretKeySpec deriveKey(long window) {
+        if (rotationSeconds <= 0) {
+            return masterKey;
+        }
+        Mac mac = newMac(masterKey);
+        byte[] derived = mac.doFinal(("csrf/" + window).getBytes(StandardCharsets.US_ASCII));
+        return new SecretKeySpec(derived, MAC_ALGORITHM);
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("unable to create csrf mac", e);
+        }
+    }
+
+    private class Signer {
+        private final byte[] input = new byte[MAX_SIGNED_LENGTH];
+        private final byte[] output = new byte[32];
+        private long currentWindow = Long.MIN_VALUE;
+        private long previousWindow = Long.MIN_VALUE;
+        private Mac current;
+        private Mac previous;
+
+        private Mac macFor(long window) {
+            if (window == currentWindow) {
+                return current;
+            }
+            if (window == previousWindow) {
+                return previous;
+            }
+
+            Mac mac = newMac(deriveKey(window));
+            if (window > currentWindow) {
+                previous = current;
+                previousWindow = currentWindow;
+                current = mac;
+                currentWindow = window;
+            } else {
+                previous = mac;
+                previousWindow = window;
+            }
+            return mac;
+        }
+    }
+}
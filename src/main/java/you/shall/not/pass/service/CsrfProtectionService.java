@@ -4,17 +4,10 @@ package you.shall.not.pass.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 import you.shall.not.pass.exception.CsrfViolationException;
 
 import javax.servlet.http.HttpServletRequest;
-import java.time.Instant;
-import java.time.OffsetDateTime;
-import java.time.ZoneId;
-import java.time.temporal.ChronoUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 
 @Service
@@ -22,56 +15,64 @@ public class CsrfProtectionService {
 
     private static final Logger LOG = LoggerFactory.getLogger(CsrfProtectionService.class);
 
-    private final static String CSRF_COOKIE_NAME = "CSRF";
-    private final static String XSRF_GUARD_NAME = "XSRF";
+    public final static String CSRF_COOKIE_NAME = "CSRF";
+    public final static String XSRF_GUARD_NAME = "XSRF";
 
     private final static int CSRF_TOKEN_SIZE = 8;
-    private final static Pattern GUARD_PATTERN = Pattern.compile("[a-zA-Z0-9]{16}_[0-9]{10}");
+
+    // {16 hex nonce}_{10 digit expiry epoch}_{32 hex mac}
+    private final static int NONCE_LENGTH = CSRF_TOKEN_SIZE * 2;
+    private final static int EPOCH_OFFSET = NONCE_LENGTH + 1;
+    private final static int EPOCH_LENGTH = 10;
+    private final static int SIGNED_LENGTH = EPOCH_OFFSET + EPOCH_LENGTH;
+    private final static int MAC_OFFSET = SIGNED_LENGTH + 1;
+    private final static int TOKEN_LENGTH = MAC_OFFSET + CsrfKeyRing.MAC_SIZE * 2;
 
     @Value("${csrf.expiry.seconds}")
     private int expiry;
 
     private CookieService cookieService;
     private SecureTokenService tokenService;
+    private CsrfKeyRing keyRing;
 
-    public CsrfProtectionService(CookieService cookieService, SecureTokenService tokenService) {
+    public CsrfProtectionService(CookieService cookieService, SecureTokenService tokenService, CsrfKeyRing keyRing) {
         this.cookieService = cookieService;
         this.tokenService = tokenService;
+        this.keyRing = keyRing;
     }
 
     public String getCsrfCookie() {
-        long epoch = OffsetDateTime.now().plusSeconds(expiry).toEpochSecond();
-        final String token = tokenService.generateToken(CSRF_TOKEN_SIZE) + "_" + epoch;
+        long now = currentEpochSeconds();
+        String payload = tokenService.generateToken(CSRF_TOKEN_SIZE) + "_" + (now + expiry);
+        byte[] mac = keyRing.sign(payload, SIGNED_LENGTH, keyRing.window(now));
+        final String token = payload + "_" + HexEncoder.encode(mac, 0, CsrfKeyRing.MAC_SIZE);
         return cookieService.createCookie(CSRF_COOKIE_NAME, token, expiry);
     }
 
     public void validateCsrfCookie(HttpServletRequest request) {
-        final String xsrfGuard = getCsrfGuardCheckValue(request);
-        final String csrf = cookieService.getCookieValue(request, CSRF_COOKIE_NAME);
-
-        LOG.info("incoming csrf cookie: {}", csrf);
-        LOG.info("incoming xsrf value: {}", xsrfGuard);
+        validateCsrf(cookieService.getCookieValue(request, CSRF_COOKIE_NAME), getCsrfGuardCheckValue(request));
+    }
 
-        if (csrf == null && xsrfGuard == null) {
+    /**
+     * Validates the CSRF cookie value against the XSRF guard echoed in a header or parameter, for callers that
+     * read the request themselves.
+     */
+    public void validateCsrf(String csrf, String xsrfGuard) {
+        if (csrf == null || xsrfGuard == null) {
             throw new CsrfViolationException("Either the CSRF Token or the XSRF token is missing.");
         }
 
-        final Matcher matcher = GUARD_PATTERN.matcher(csrf);
-        boolean matches = matcher.matches();
+        final long now = currentEpochSeconds();
+        final long epoch = parseEpoch(csrf);
 
-        LOG.info("csrf cookie pattern guard passed: {}", matches);
-
-        if (!matches) {
+        if (epoch < 0 || epoch > now + expiry || !isSigned(csrf, epoch - expiry, now)) {
+            LOG.debug("csrf cookie failed signature check");
             throw new CsrfViolationException("CSRF Token is not valid.");
         }
 
-        long diff = getEpochSecondsDiff(csrf);
-
-        LOG.info("csrf cookie expiry in {} secs", diff);
-
-        if (!csrf.equals(xsrfGuard)) {
+        if (!constantTimeEquals(csrf, xsrfGuard)) {
             throw new CsrfViolationException("CSRF/XSRF failed validation.");
-        } else if (diff <= 0) {
+        } else if (epoch <= now) {
             throw new CsrfViolationException("CSRF token expired.");
         }
     }
@@ -84,11 +85,52 @@ public class CsrfProtectionService {
         return guardCheckValue;
     }
 
-    private long getEpochSecondsDiff(String cookieValue) {
-        final String values[] = cookieValue.split("_");
-        final String epochReceived = values[1];
-        final Instant ofEpochSecond = Instant.ofEpochSecond(Long.parseLong(epochReceived));
-        final OffsetDateTime ofInstant = OffsetDateTime.ofInstant(ofEpochSecond, ZoneId.systemDefault());
-        return OffsetDateTime.now().until(ofInstant, ChronoUnit.SECONDS);
+    private static long parseEpoch(String token) {
+        if (token.length() != TOKEN_LENGTH
+                || token.charAt(NONCE_LENGTH) != '_'
+                || token.charAt(SIGNED_LENGTH) != '_') {
+            return -1;
+        }
+        long epoch = 0;
+        for (int i = EPOCH_OFFSET; i < SIGNED_LENGTH; i++) {
+            int digit = token.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            epoch = epoch * 10 + digit;
+        }
+        return epoch;
+    }
+
+    private boolean isSigned(String token, long issuedAt, long now) {
+        long window = keyRing.window(issuedAt);
+        if (!keyRing.isAcceptedWindow(window, now)) {
+            return false;
+        }
+
+        byte[] expected = keyRing.sign(token, SIGNED_LENGTH, window);
+        int diff = 0;
+        for (int i = 0; i < CsrfKeyRing.MAC_SIZE; i++) {
+            int high = Character.digit(token.charAt(MAC_OFFSET + i * 2), 16);
+            int low = Character.digit(token.charAt(MAC_OFFSET + i * 2 + 1), 16);
+            diff |= (high | low) >>> 31;
+            diff |= ((high << 4) | low) ^ (expected[i] & 0xFF);
+        }
+        return diff == 0;
+    }
+
+    private static boolean constantTimeEquals(String left, String right) {
+        if (left.length() != right.length()) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < left.length(); i++) {
+            diff |= left.charAt(i) ^ right.charAt(i);
+        }
+        return diff == 0;
+    }
+
+    private static long currentEpochSeconds() {
+        return System.currentTimeMillis() / 1000;
     }
 }
@@ -3,7 +3,6 @@ package you.shall.not.pass.service;
 import lombok.Builder;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Example;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,7 +12,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 import you.shall.not.pass.domain.User;
 import you.shall.not.pass.domain.Access;
-import you.shall.not.pass.repositories.UserRepository;
 
 import java.util.HashSet;
 import java.util.Optional;
@@ -22,11 +20,11 @@ import java.util.Set;
 @Service
 public class CustomUserDetailService implements UserDetailsService {
 
-    private final UserRepository repository;
+    private final UserDirectory directory;
 
     @Autowired
-    public CustomUserDetailService(UserRepository repository) {
-        this.repository = repository;
+    public CustomUserDetailService(UserDirectory directory) {
+        this.directory = directory;
     }
 
     @Builder
@@ -60,8 +58,7 @@ public class CustomUserDetailService implements UserDetailsService {
             String lvl = userArray[0];
             String userName = userArray[1];
 
-            Example<User> example = Example.of(User.builder().userName(userName).build());
-            Optional<User> OptionalUser = repository.findOne(example);
+            Optional<User> OptionalUser = directory.findByUserName(userName);
             User gateKeeperUser = OptionalUser.orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
             UserGrantDetail userGrantDetail = getDetails(lvl, gateKeeperUser);
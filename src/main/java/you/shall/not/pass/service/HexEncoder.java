@@ -0,0 +1,53 @@
+package you.shall.not.pass.service;
+
+/**
+ * Upper case hex encoding, byte for byte compatible with the DatatypeConverter output it replaces.
+ * Decoding accepts either case.
+ */
+public final class HexEncoder {
+
+    private static final char[] DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private HexEncoder() {
+    }
+
+    public static String encode(byte[] bytes) {
+        return encode(bytes, 0, bytes.length);
+    }
+
+    public static String encode(byte[] bytes, int offset, int length) {
+        char[] chars = new char[length * 2];
+        encode(bytes, offset, length, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Writes {@code length} bytes as {@code length * 2} hex digits into {@code target} starting at {@code position}.
+     */
+    public static void encode(byte[] bytes, int offset, int length, char[] target, int position) {
+        for (int i = 0; i < length; i++) {
+            int value = bytes[offset + i] & 0xFF;
+            target[position++] = DIGITS[value >>> 4];
+            target[position++] = DIGITS[value & 0x0F];
+        }
+    }
+
+    /**
+     * Returns the bytes of an even length hex string, or null when {@code hex} is not one.
+     */
+    public static byte[] decode(String hex) {
+        if (hex == null || (hex.length() & 1) != 0) {
+            return null;
+        }
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(hex.charAt(i * 2), 16);
+            int low = Character.digit(hex.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+}
@@ -1,5 +1,6 @@
 package you.shall.not.pass.service;
 
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,7 +17,11 @@ public class LogonUserService {
     }
 
     static Optional<Access> getGateKeeperGrant() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return getAccessLevel(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    public static Optional<Access> getAccessLevel(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
         if (principal instanceof UserDetails) {
             UserDetails userDetails = ((UserDetails) principal);
             List<GrantedAuthority> targetList = new ArrayList<>(userDetails.getAuthorities());
@@ -28,7 +33,11 @@ public class LogonUserService {
     }
 
     public static Optional<String> getCurrentUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return getUser(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    public static Optional<String> getUser(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
         if (principal instanceof UserDetails) {
             UserDetails userDetails = ((UserDetails) principal);
             return Optional.of(userDetails.getUsername());
@@ -0,0 +1,131 @@
+package you.shall.not.pass.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.domain.Session;
+import you.shall.not.pass.domain.StoredSession;
+import you.shall.not.pass.repositories.SessionRepository;
+
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Sessions are stored as compact {@link StoredSession} documents. Until {@code session.legacy.reads} is switched
+ * off, a session missing there is looked up in the collection of older releases and rewritten in the compact form.
+ */
+@Service
+@ConditionalOnProperty(name = "session.store", havingValue = "mongo", matchIfMissing = true)
+public class MongoSessionStore implements SessionStore {
+
+    @Value("${session.legacy.reads}")
+    private boolean legacyReads;
+
+    private final MongoTemplate mongoTemplate;
+    private final SessionRepository sessionRepository;
+    private final SessionWriter sessionWriter;
+    private final ReactiveMongoOperations reactiveMongo;
+
+    public MongoSessionStore(MongoTemplate mongoTemplate, SessionRepository sessionRepository, SessionWriter sessionWriter,
+                             ObjectProvider<ReactiveMongoOperations> reactiveMongo) {
+        this.mongoTemplate = mongoTemplate;
+        this.sessionRepository = sessionRepository;
+        this.sessionWriter = sessionWriter;
+        this.reactiveMongo = reactiveMongo.getIfAvailable();
+    }
+
+    @Override
+    public Optional<Session> findByToken(String token) {
+        Optional<Session> unflushed = sessionWriter.pending(token);
+        if (unflushed.isPresent()) {
+            return unflushed;
+        }
+
+        byte[] id = HexEncoder.decode(token);
+        StoredSession stored = id == null ? null : mongoTemplate.findById(id, StoredSession.class);
+        if (stored != null) {
+            return Optional.of(toSession(token, stored));
+        }
+        if (!legacyReads) {
+            return Optional.empty();
+        }
+
+        Optional<Session> legacy = Optional.ofNullable(sessionRepository.findByToken(token));
+        legacy.filter(session -> id != null).ifPresent(this::migrate);
+        return legacy;
+    }
+
+    /**
+     * Same lookup as {@link #findByToken(String)} on the reactive driver, which is only there in the reactive gateway.
+     */
+    @Override
+    public Mono<Session> findByTokenReactive(String token) {
+        if (reactiveMongo == null) {
+            return SessionStore.super.findByTokenReactive(token);
+        }
+
+        Optional<Session> unflushed = sessionWriter.pending(token);
+        if (unflushed.isPresent()) {
+            return Mono.just(unflushed.get());
+        }
+
+        byte[] id = HexEncoder.decode(token);
+        Mono<Session> stored = id == null ? Mono.empty() : reactiveMongo.findById(id, StoredSession.class)
+                .map(session -> toSession(token, session));
+        if (!legacyReads) {
+            return stored;
+        }
+
+        Mono<Session> legacy = reactiveMongo.findOne(Query.query(Criteria.where("token").is(token)), Session.class);
+        return stored.switchIfEmpty(id == null ? legacy : legacy.doOnNext(this::migrate));
+    }
+
+    @Override
+    public Optional<Session> findLastSession(String userId, Access grant) {
+        Query lastSession = Query.query(Criteria.where("userId").is(userId).and("grant").is(grant.getLevel()))
+                .with(Sort.by(Sort.Direction.DESC, "expiry"))
+                .limit(1);
+        Optional<Session> stored = Optional.ofNullable(mongoTemplate.findOne(lastSession, StoredSession.class))
+                .map(session -> toSession(HexEncoder.encode(session.getToken()), session));
+        if (stored.isPresent() || !legacyReads) {
+            return stored;
+        }
+        return sessionRepository.findFirstByUserIdAndGrantOrderByDateDesc(userId, grant);
+    }
+
+    @Override
+    public void save(Session session) {
+        sessionWriter.write(session);
+    }
+
+    @Override
+    public void saveNow(Session session) {
+        sessionWriter.writeNow(session);
+    }
+
+    private void migrate(Session legacy) {
+        sessionWriter.write(Session.builder()
+                .token(legacy.getToken())
+                .grant(legacy.getGrant())
+                .userId(legacy.getUserId())
+                .date(legacy.getDate())
+                .build());
+    }
+
+    private static Session toSession(String token, StoredSession stored) {
+        return Session.builder()
+                .token(token)
+                .grant(stored.getGrant() == null ? null : Access.find(stored.getGrant()).orElse(null))
+                .userId(stored.getUserId())
+                .date(stored.getExpiry() == null ? null : new Date(stored.getExpiry()))
+                .build();
+    }
+}
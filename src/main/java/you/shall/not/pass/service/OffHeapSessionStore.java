@@ -0,0 +1,328 @@
+package you.shall.not.pass.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.domain.Session;
+
+import javax.annotation.PostConstruct;
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps sessions in direct memory for single node and edge deployments, so millions of live sessions add
+ * nothing for the collector to trace. The 32 hex char token is decoded into two longs and hashed into one
+ * of {@value #SEGMENTS} lock striped open addressing tables of fixed width slots holding the token, expiry
+ * in epoch millis, user index and grant. Linear probing with backward shift deletion keeps probe chains
+ * free of tombstones, and expired sessions are purged on a schedule. Sessions do not survive a restart.
+ */
+@Service
+@ConditionalOnProperty(name = "session.store", havingValue = "offheap")
+public class OffHeapSessionStore implements SessionStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OffHeapSessionStore.class);
+
+    private static final int SEGMENTS = 64;
+    private static final int SEGMENT_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(SEGMENTS);
+    private static final int MIN_SEGMENT_SLOTS = 16;
+    private static final int TOKEN_LENGTH = 32;
+
+    // slot layout: token high long, token low long, expiry long, user index int, grant byte, used byte
+    private static final int SLOT_SIZE = 32;
+    private static final int HIGH = 0;
+    private static final int LOW = 8;
+    private static final int EXPIRY = 16;
+    private static final int USER = 24;
+    private static final int GRANT = 28;
+    private static final int USED = 29;
+
+    private static final Access[] GRANTS = Access.values();
+
+    @Value("${session.store.offheap.capacity}")
+    private int capacity;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Integer> userIndexes = new ConcurrentHashMap<>();
+    private final Map<Integer, String> userIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextUserIndex = new AtomicInteger(1);
+    private final Map<Long, LatestSession> latestSessions = new ConcurrentHashMap<>();
+
+    private Segment[] segments;
+
+    public OffHeapSessionStore(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void allocate() {
+        int slots = segmentSlots(capacity);
+        segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(slots);
+        }
+        LOG.info("allocated {} KB of direct memory for {} session slots",
+                (long) SEGMENTS * slots * SLOT_SIZE / 1024, (long) SEGMENTS * slots);
+        meterRegistry.gauge("gateway.session.store.entries", Tags.empty(), this, OffHeapSessionStore::size);
+    }
+
+    /**
+     * Slots per segment so the store takes {@code capacity} sessions below the 3/4 load factor, with slack of four
+     * standard deviations for tokens that hash unevenly across segments.
+     */
+    static int segmentSlots(int capacity) {
+        long perSegment = Math.max(1, (capacity + SEGMENTS - 1) / SEGMENTS);
+        long entries = perSegment + 4 * (long) Math.ceil(Math.sqrt(perSegment)) + MIN_SEGMENT_SLOTS;
+        long slots = (entries * 4 + 2) / 3;
+        return Math.max(MIN_SEGMENT_SLOTS, Integer.highestOneBit((int) slots - 1) << 1);
+    }
+
+    @Override
+    public Optional<Session> findByToken(String token) {
+        if (!isToken(token)) {
+            return Optional.empty();
+        }
+        long high = parseHex(token, 0);
+        long low = parseHex(token, TOKEN_LENGTH / 2);
+        Segment segment = segmentFor(high, low);
+
+        long expiry;
+        int user;
+        int grant;
+        segment.lock.readLock().lock();
+        try {
+            int slot = segment.find(high, low);
+            if (slot < 0) {
+                return Optional.empty();
+            }
+            int offset = slot * SLOT_SIZE;
+            expiry = segment.slots.getLong(offset + EXPIRY);
+            user = segment.slots.getInt(offset + USER);
+            grant = segment.slots.get(offset + GRANT);
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+
+        if (expiry <= System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        return Optional.of(Session.builder()
+                .token(token)
+                .grant(grant == 0 ? null : GRANTS[grant - 1])
+                .userId(user == 0 ? null : userIds.get(user))
+                .date(new Date(expiry))
+                .build());
+    }
+
+    @Override
+    public Optional<Session> findLastSession(String userId, Access grant) {
+        Integer user = userIndexes.get(userId);
+        LatestSession latest = user == null ? null : latestSessions.get(latestKey(user, grant));
+        return latest == null ? Optional.empty() : findByToken(latest.token);
+    }
+
+    @Override
+    public void save(Session session) {
+        String token = session.getToken();
+        if (!isToken(token)) {
+            throw new IllegalArgumentException("off-heap session store only holds " + TOKEN_LENGTH + " hex char tokens");
+        }
+        long high = parseHex(token, 0);
+        long low = parseHex(token, TOKEN_LENGTH / 2);
+        long expiry = session.getDate() == null ? 0 : session.getDate().getTime();
+        int user = session.getUserId() == null ? 0 : userIndex(session.getUserId());
+        int grant = session.getGrant() == null ? 0 : session.getGrant().ordinal() + 1;
+
+        segmentFor(high, low).put(high, low, expiry, user, (byte) grant);
+
+        if (user != 0 && grant != 0 && expiry != 0) {
+            latestSessions.merge(latestKey(user, session.getGrant()), new LatestSession(token, expiry),
+                    (current, saved) -> saved.expiry >= current.expiry ? saved : current);
+        }
+    }
+
+    @Override
+    public void saveNow(Session session) {
+        save(session);
+    }
+
+    @Scheduled(fixedDelayString = "#{${session.store.offheap.purge.seconds} * 1000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int purged = 0;
+        for (Segment segment : segments) {
+            segment.lock.writeLock().lock();
+            try {
+                purged += segment.purge(now);
+            } finally {
+                segment.lock.writeLock().unlock();
+            }
+        }
+        LOG.debug("purged {} expired sessions", purged);
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    private int userIndex(String userId) {
+        return userIndexes.computeIfAbsent(userId, id -> {
+            int index = nextUserIndex.getAndIncrement();
+            userIds.put(index, id);
+            return index;
+        });
+    }
+
+    private Segment segmentFor(long high, long low) {
+        return segments[hash(high, low) >>> SEGMENT_SHIFT];
+    }
+
+    private static Long latestKey(int user, Access grant) {
+        return ((long) user << 8) | grant.ordinal();
+    }
+
+    private static int hash(long high, long low) {
+        long h = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static boolean isToken(String token) {
+        if (token == null || token.length() != TOKEN_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < TOKEN_LENGTH; i++) {
+            if (Character.digit(token.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String token, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + TOKEN_LENGTH / 2; i++) {
+            value = (value << 4) | Character.digit(token.charAt(i), 16);
+        }
+        return value;
+    }
+
+    private static final class LatestSession {
+        private final String token;
+        private final long expiry;
+
+        private LatestSession(String token, long expiry) {
+            this.token = token;
+            this.expiry = expiry;
+        }
+    }
+
+    private static final class Segment {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final ByteBuffer slots;
+        private final int mask;
+        private final int maxEntries;
+        private volatile int size;
+
+        private Segment(int slotCount) {
+            slots = ByteBuffer.allocateDirect(slotCount * SLOT_SIZE);
+            mask = slotCount - 1;
+            maxEntries = slotCount - (slotCount >>> 2);
+        }
+
+        private int find(long high, long low) {
+            int slot = hash(high, low) & mask;
+            while (slots.get(slot * SLOT_SIZE + USED) != 0) {
+                int offset = slot * SLOT_SIZE;
+                if (slots.getLong(offset + HIGH) == high && slots.getLong(offset + LOW) == low) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void put(long high, long low, long expiry, int user, byte grant) {
+            lock.writeLock().lock();
+            try {
+                int slot = find(high, low);
+                if (slot < 0) {
+                    if (size >= maxEntries && purge(System.currentTimeMillis()) == 0) {
+                        throw new IllegalStateException("off-heap session store is full, raise session.store.offheap.capacity");
+                    }
+                    slot = hash(high, low) & mask;
+                    while (slots.get(slot * SLOT_SIZE + USED) != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    int offset = slot * SLOT_SIZE;
+                    slots.putLong(offset + HIGH, high);
+                    slots.putLong(offset + LOW, low);
+                    slots.putLong(offset + EXPIRY, 0);
+                    slots.putInt(offset + USER, 0);
+                    slots.put(offset + GRANT, (byte) 0);
+                    slots.put(offset + USED, (byte) 1);
+                    size++;
+                }
+                // a partial save keeps the stored value of every field it leaves unset
+                int offset = slot * SLOT_SIZE;
+                if (expiry != 0) {
+                    slots.putLong(offset + EXPIRY, expiry);
+                }
+                if (user != 0) {
+                    slots.putInt(offset + USER, user);
+                }
+                if (grant != 0) {
+                    slots.put(offset + GRANT, grant);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private int purge(long now) {
+            int purged = 0;
+            for (int slot = 0; slot <= mask; slot++) {
+                // deleting shifts the next entry of the probe chain into this slot, so look at it again
+                while (slots.get(slot * SLOT_SIZE + USED) != 0 && slots.getLong(slot * SLOT_SIZE + EXPIRY) <= now) {
+                    delete(slot);
+                    purged++;
+                }
+            }
+            return purged;
+        }
+
+        private void delete(int hole) {
+            int slot = hole;
+            while (true) {
+                slot = (slot + 1) & mask;
+                int offset = slot * SLOT_SIZE;
+                if (slots.get(offset + USED) == 0) {
+                    break;
+                }
+                int home = hash(slots.getLong(offset + HIGH), slots.getLong(offset + LOW)) & mask;
+                // an entry may fill the hole only if the hole lies between its home slot and where it sits now
+                if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                    for (int i = 0; i < SLOT_SIZE; i += Long.BYTES) {
+                        slots.putLong(hole * SLOT_SIZE + i, slots.getLong(offset + i));
+                    }
+                    hole = slot;
+                }
+            }
+            slots.put(hole * SLOT_SIZE + USED, (byte) 0);
+            size--;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package you.shall.not.pass.service;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+
+public final class RequestCookies {
+
+    private static final String REQUEST_ATTRIBUTE = RequestCookies.class.getName();
+    private static final RequestCookies EMPTY = new RequestCookies(new String[0], new String[0]);
+
+    private final String[] names;
+    private final String[] values;
+
+    private RequestCookies(String[] names, String[] values) {
+        this.names = names;
+        this.values = values;
+    }
+
+    static RequestCookies of(HttpServletRequest request) {
+        Object parsed = request.getAttribute(REQUEST_ATTRIBUTE);
+        if (parsed instanceof RequestCookies) {
+            return (RequestCookies) parsed;
+        }
+
+        RequestCookies cookies = parse(request.getCookies());
+        request.setAttribute(REQUEST_ATTRIBUTE, cookies);
+        return cookies;
+    }
+
+    private static RequestCookies parse(Cookie[] cookies) {
+        if (cookies == null || cookies.length == 0) {
+            return EMPTY;
+        }
+        String[] names = new String[cookies.length];
+        String[] values = new String[cookies.length];
+        for (int i = 0; i < cookies.length; i++) {
+            names[i] = cookies[i].getName();
+            values[i] = cookies[i].getValue();
+        }
+        return new RequestCookies(names, values);
+    }
+
+    public String get(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,66 @@
+package you.shall.not.pass.service;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Reuses helpers that are costly to set up and not thread safe, such as an initialized {@link javax.crypto.Mac}.
+ * A platform thread keeps its own in a thread local. A virtual thread only lives for one request, so with
+ * {@code spring.threads.virtual.enabled} they are borrowed from a few shared slots instead, about one per carrier
+ * thread, and a helper is only created when every slot is taken.
+ */
+public final class ReusePool<T> {
+
+    private final Supplier<T> factory;
+    private final ThreadLocal<T> perThread;
+    private final AtomicReferenceArray<T> slots;
+
+    private ReusePool(Supplier<T> factory, boolean virtualThreads) {
+        this.factory = factory;
+        this.perThread = virtualThreads ? null : ThreadLocal.withInitial(factory);
+        this.slots = virtualThreads ? new AtomicReferenceArray<>(Runtime.getRuntime().availableProcessors() * 2) : null;
+    }
+
+    public static <T> ReusePool<T> of(Supplier<T> factory, boolean virtualThreads) {
+        return new ReusePool<>(factory, virtualThreads);
+    }
+
+    /**
+     * Whether a borrowed helper stays with the calling thread, so whatever it returns may outlive {@link #release}.
+     */
+    public boolean isPerThread() {
+        return perThread != null;
+    }
+
+    public T borrow() {
+        if (perThread != null) {
+            return perThread.get();
+        }
+        int start = start();
+        for (int i = 0; i < slots.length(); i++) {
+            int slot = (start + i) % slots.length();
+            T pooled = slots.get(slot);
+            if (pooled != null && slots.compareAndSet(slot, pooled, null)) {
+                return pooled;
+            }
+        }
+        return factory.get();
+    }
+
+    public void release(T helper) {
+        if (perThread != null) {
+            return;
+        }
+        int start = start();
+        for (int i = 0; i < slots.length(); i++) {
+            int slot = (start + i) % slots.length();
+            if (slots.get(slot) == null && slots.compareAndSet(slot, null, helper)) {
+                return;
+            }
+        }
+    }
+
+    private int start() {
+        return (int) (Thread.currentThread().getId() % slots.length());
+    }
+}
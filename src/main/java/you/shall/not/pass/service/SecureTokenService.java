@@ -1,22 +1,113 @@
 package you.shall.not.pass.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import javax.xml.bind.DatatypeConverter;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
+/**
+ * Random tokens from a pool of independently seeded generators, a thread always draws from the same
+ * stripe so request threads do not queue on one generator. Standard size tokens can additionally be
+ * pre-generated into a buffer by a background thread.
+ */
 @Service
 public class SecureTokenService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SecureTokenService.class);
+
     private final static int STANDARD_SIZE_TOKEN = 16;
-    private final static SecureRandom SECURE_RANDOM = new SecureRandom();
+    private final static String[] ALGORITHMS = {"DRBG", "SHA1PRNG"};
+
+    @Value("${secure.token.prefetch.size}")
+    private int prefetchSize;
+
+    private final SecureRandom[] stripes;
+    private final int stripeMask;
+
+    private BlockingQueue<String> prefetched;
+    private Thread refiller;
+    private volatile boolean running;
+
+    public SecureTokenService() {
+        int size = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        stripes = new SecureRandom[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = newGenerator();
+        }
+        stripeMask = size - 1;
+    }
+
+    @PostConstruct
+    public void startPrefetch() {
+        if (prefetchSize <= 0) {
+            return;
+        }
+        prefetched = new ArrayBlockingQueue<>(prefetchSize);
+        running = true;
+        refiller = new Thread(this::refill, "secure-token-prefetch");
+        refiller.setDaemon(true);
+        refiller.start();
+    }
+
+    @PreDestroy
+    public void stopPrefetch() throws InterruptedException {
+        running = false;
+        if (refiller != null) {
+            refiller.interrupt();
+            refiller.join(1000);
+        }
+    }
 
     public String generateToken() {
+        if (prefetched != null) {
+            String token = prefetched.poll();
+            if (token != null) {
+                return token;
+            }
+        }
         return generateToken(STANDARD_SIZE_TOKEN);
     }
 
     public String generateToken(int size) {
         byte[] buffer = new byte[size];
-        SECURE_RANDOM.nextBytes(buffer);
-        return DatatypeConverter.printHexBinary(buffer);
+        nextBytes(buffer);
+        return HexEncoder.encode(buffer);
+    }
+
+    public void nextBytes(byte[] buffer) {
+        stripe().nextBytes(buffer);
+    }
+
+    private SecureRandom stripe() {
+        long id = Thread.currentThread().getId();
+        return stripes[(int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask];
+    }
+
+    private void refill() {
+        try {
+            while (running) {
+                prefetched.put(generateToken(STANDARD_SIZE_TOKEN));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static SecureRandom newGenerator() {
+        for (String algorithm : ALGORITHMS) {
+            try {
+                return SecureRandom.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                LOG.debug("secure random {} not available", algorithm);
+            }
+        }
+        return new SecureRandom();
     }
 }
@@ -0,0 +1,108 @@
+package you.shall.not.pass.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import you.shall.not.pass.domain.Session;
+
+import javax.annotation.PostConstruct;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class SessionCache {
+
+    public static final String CACHE_NAME = "sessions";
+
+    @Value("${session.cache.size}")
+    private long maximumSize;
+
+    @Value("${session.cache.ttl.seconds}")
+    private long ttlSeconds;
+
+    private final MeterRegistry meterRegistry;
+
+    private Cache<String, Session> cache;
+
+    public SessionCache(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void setupCache() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new SessionExpiry(TimeUnit.SECONDS.toNanos(ttlSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Optional<Session> get(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(token));
+    }
+
+    public void put(Session session) {
+        if (session != null && session.getToken() != null) {
+            cache.put(session.getToken(), session);
+        }
+    }
+
+    /**
+     * Swaps {@code current} for {@code replacement} only if it is still the cached session of its token.
+     */
+    public boolean replace(Session current, Session replacement) {
+        return current.getToken() != null && cache.asMap().replace(current.getToken(), current, replacement);
+    }
+
+    public void invalidate(String token) {
+        if (token != null) {
+            cache.invalidate(token);
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static class SessionExpiry implements Expiry<String, Session> {
+
+        private final long ttlNanos;
+
+        SessionExpiry(long ttlNanos) {
+            this.ttlNanos = ttlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String token, Session session, long currentTime) {
+            return timeToLive(session);
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Session session, long currentTime, long currentDuration) {
+            return timeToLive(session);
+        }
+
+        @Override
+        public long expireAfterRead(String token, Session session, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private long timeToLive(Session session) {
+            if (session.getDate() == null) {
+                return 0;
+            }
+            long untilSessionExpiry = TimeUnit.MILLISECONDS.toNanos(
+                    session.getDate().getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(ttlNanos, untilSessionExpiry));
+        }
+    }
+}
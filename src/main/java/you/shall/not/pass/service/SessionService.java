@@ -3,17 +3,17 @@ package you.shall.not.pass.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Example;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 import you.shall.not.pass.domain.Access;
 import you.shall.not.pass.domain.Session;
 import you.shall.not.pass.domain.User;
-import you.shall.not.pass.repositories.SessionRepository;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.Comparator;
+import java.util.Date;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class SessionService {
@@ -22,27 +22,67 @@ public class SessionService {
 
     private static final Logger LOG = LoggerFactory.getLogger(SessionService.class);
 
-    private final SessionRepository sessionRepository;
+    private final SessionStore sessionStore;
     private final UserService userService;
     private final CsrfProtectionService csrfProtectionService;
     private final CookieService cookieService;
     private final DateService dateService;
+    private final SessionCache sessionCache;
+    private final SecureTokenService secureTokenService;
+    private final AnonymousTokenService anonymousTokenService;
 
     @Value("${session.expiry.seconds}")
     private int sessionExpirySeconds;
 
-    public SessionService(SessionRepository sessionRepository, UserService userService, CsrfProtectionService csrfProtectionService, CookieService cookieService, DateService dateService) {
-        this.sessionRepository = sessionRepository;
+    @Value("${session.anonymous.lazy}")
+    private boolean lazyAnonymousSessions;
+
+    @Value("${session.sliding.enabled}")
+    private boolean slidingExpiry;
+
+    @Value("${session.sliding.renew.fraction}")
+    private double renewFraction;
+
+    public SessionService(SessionStore sessionStore, UserService userService, CsrfProtectionService csrfProtectionService, CookieService cookieService, DateService dateService, SessionCache sessionCache, SecureTokenService secureTokenService, AnonymousTokenService anonymousTokenService) {
+        this.sessionStore = sessionStore;
         this.userService = userService;
         this.csrfProtectionService = csrfProtectionService;
         this.cookieService = cookieService;
         this.dateService = dateService;
+        this.sessionCache = sessionCache;
+        this.secureTokenService = secureTokenService;
+        this.anonymousTokenService = anonymousTokenService;
     }
 
     public Optional<Session> findSessionByToken(String token) {
-        Example<Session> example = Example.of(Session.builder()
-                .token(token).build());
-        return sessionRepository.findOne(example);
+        Optional<Session> cached = sessionCache.get(token);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        Optional<Session> session = sessionStore.findByToken(token);
+        session.ifPresent(sessionCache::put);
+
+        if (!session.isPresent() && lazyAnonymousSessions) {
+            return anonymousTokenService.decode(token);
+        }
+        return session;
+    }
+
+    /**
+     * Non-blocking {@link #findSessionByToken(String)} for the reactive gateway.
+     */
+    public Mono<Session> findSessionByTokenReactive(String token) {
+        Optional<Session> cached = sessionCache.get(token);
+        if (cached.isPresent()) {
+            return Mono.just(cached.get());
+        }
+
+        Mono<Session> session = sessionStore.findByTokenReactive(token).doOnNext(sessionCache::put);
+        if (lazyAnonymousSessions) {
+            return session.switchIfEmpty(Mono.fromSupplier(() -> anonymousTokenService.decode(token).orElse(null)));
+        }
+        return session;
     }
 
     public boolean isExpiredSession(Optional<Session> optionalSession) {
@@ -50,12 +90,39 @@ public class SessionService {
                 .isAfter(dateService.asLocalDateTime(session.getDate()))).isPresent();
     }
 
+    /**
+     * Slides the expiry of a session once {@code session.sliding.renew.fraction} of its lifetime has passed.
+     * Only the request that wins the swap of the cached session writes the renewal, so a session is written
+     * at most once per renewal window on this instance. Returns the refreshed cookie when renewed.
+     */
+    public Optional<String> renewSession(Session session) {
+        if (!slidingExpiry || session.getDate() == null
+                || (lazyAnonymousSessions && session.getGrant() == Access.Level0)) {
+            return Optional.empty();
+        }
+
+        long now = System.currentTimeMillis();
+        long lifetime = TimeUnit.SECONDS.toMillis(sessionExpirySeconds);
+        long elapsed = lifetime - (session.getDate().getTime() - now);
+        if (elapsed < lifetime * renewFraction) {
+            return Optional.empty();
+        }
+
+        Session renewed = Session.builder()
+                .token(session.getToken())
+                .grant(session.getGrant())
+                .userId(session.getUserId())
+                .date(new Date(now + lifetime))
+                .build();
+        if (!sessionCache.replace(session, renewed)) {
+            return Optional.empty();
+        }
+        sessionStore.save(renewed);
+        return Optional.of(createSessionCookie(session.getToken(), sessionExpirySeconds));
+    }
+
     private Optional<Session> findLastKnownSession(User user, Access grant) {
-        Example<Session> example = Example.of(Session.builder()
-                .userId(user.getId()).grant(grant).build());
-        return sessionRepository.findAll(example).stream()
-                .sorted(Comparator.comparing(Session::getDate,
-                Comparator.nullsLast(Comparator.reverseOrder()))).findFirst();
+        return sessionStore.findLastSession(user.getId(), grant);
     }
 
     public Optional<String> authenticatedSession(String sessionCookieValue) {
@@ -65,6 +132,10 @@ public class SessionService {
         final Access level = LogonUserService.getCurrentAccessLevel().orElseThrow(()
                 -> new RuntimeException("Invalid user access level!"));
 
+        return authenticatedSession(sessionCookieValue, username, level);
+    }
+
+    public Optional<String> authenticatedSession(String sessionCookieValue, String username, Access level) {
         final User user = userService.getUserByName(username);
         Optional<Session> priorSession = findLastKnownSession(user, level);
 
@@ -87,24 +158,49 @@ public class SessionService {
     }
 
     private Optional<String> updateSessionCookie(Access grant, User user, String token) {
-        Session session = sessionRepository.findByToken(token);
+        Date expiry = dateService.asDate(LocalDateTime.now().plusSeconds(sessionExpirySeconds));
+        Session session = findOrCreateElevatedSession(token, expiry);
 
-        session.setDate(dateService.asDate(LocalDateTime.now().plusSeconds(sessionExpirySeconds)));
+        session.setDate(expiry);
         session.setGrant(grant);
         session.setUserId(user.getId());
 
-        sessionRepository.save(session);
-        return Optional.of(createSessionCookie(token, sessionExpirySeconds));
+        sessionStore.saveNow(session);
+        sessionCache.put(session);
+        return Optional.of(createSessionCookie(session.getToken(), sessionExpirySeconds));
     }
 
-    public Session createAnonymousSession(String token) {
+    private Session findOrCreateElevatedSession(String token, Date expiry) {
+        // elevation is a $set upsert by token, so a signed token needs no read of the stored session
+        boolean issuedToken = (lazyAnonymousSessions && anonymousTokenService.verify(token))
+                || findSessionByToken(token).isPresent();
+        if (issuedToken) {
+            return Session.builder().token(token).build();
+        }
+
+        LOG.info("unknown session token, issuing a new one");
+        return Session.builder().token(newToken(expiry)).build();
+    }
+
+    public Session createAnonymousSession() {
+        Date expiry = dateService.asDate(LocalDateTime.now().plusSeconds(sessionExpirySeconds));
         Session session = Session.builder()
-                .date(dateService.asDate(LocalDateTime.now().plusSeconds(sessionExpirySeconds)))
+                .date(expiry)
                 .grant(Access.Level0)
-                .token(token)
+                .token(newToken(expiry))
                 .build();
 
-        return sessionRepository.save(session);
+        if (lazyAnonymousSessions) {
+            return session;
+        }
+
+        sessionStore.save(session);
+        sessionCache.put(session);
+        return session;
+    }
+
+    private String newToken(Date expiry) {
+        return lazyAnonymousSessions ? anonymousTokenService.issue(expiry) : secureTokenService.generateToken();
     }
 
     private String createSessionCookie(String token, int expireInSeconds) {
@@ -0,0 +1,35 @@
+package you.shall.not.pass.service;
+
+import reactor.core.publisher.Mono;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.domain.Session;
+
+import java.util.Optional;
+
+/**
+ * Where sessions live behind the {@link SessionCache}, selected with {@code session.store}. Saves are partial:
+ * fields left null on the saved session keep their stored value.
+ */
+public interface SessionStore {
+
+    Optional<Session> findByToken(String token);
+
+    /**
+     * Non-blocking lookup for the reactive gateway, stores that answer from memory can keep this default.
+     */
+    default Mono<Session> findByTokenReactive(String token) {
+        return Mono.justOrEmpty(findByToken(token));
+    }
+
+    Optional<Session> findLastSession(String userId, Access grant);
+
+    /**
+     * Saves the session, possibly after returning.
+     */
+    void save(Session session);
+
+    /**
+     * Saves the session before returning, for sessions whose cookie is about to be handed out.
+     */
+    void saveNow(Session session);
+}
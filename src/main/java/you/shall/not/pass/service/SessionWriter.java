@@ -0,0 +1,217 @@
+package you.shall.not.pass.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import you.shall.not.pass.domain.Session;
+import you.shall.not.pass.domain.StoredSession;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind for session documents, stored as {@link StoredSession}. Writes are partial $set upserts keyed by the
+ * token bytes; repeated writes to
+ * a token before the next flush collapse into the latest one, and a writer thread flushes them as one
+ * unordered bulk write every flush interval or as soon as a batch fills up. Writes that must be durable
+ * before a cookie is handed out go through {@link #writeNow(Session)}, which only waits for a flush when that
+ * flush carries a write to the same token. At most {@code session.write.max.pending} tokens are queued, further
+ * writes are dropped and counted, so an unavailable database degrades sessions instead of exhausting the heap.
+ */
+@Service
+@ConditionalOnProperty(name = "session.store", havingValue = "mongo", matchIfMissing = true)
+public class SessionWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SessionWriter.class);
+
+    private static final String TOKEN = "token";
+
+    @Value("${session.write.batch.size}")
+    private int batchSize;
+
+    @Value("${session.write.flush.millis}")
+    private long flushMillis;
+
+    @Value("${session.write.max.pending}")
+    private int maxPending;
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Session> pending = new ConcurrentHashMap<>();
+    private final Map<String, CountDownLatch> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter dropped;
+
+    private Thread flusher;
+    private volatile boolean running;
+
+    public SessionWriter(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+        this.dropped = meterRegistry.counter("gateway.session.writes.dropped");
+    }
+
+    @PostConstruct
+    public void start() {
+        meterRegistry.gaugeMapSize("gateway.session.writes.pending", Tags.empty(), pending);
+        running = true;
+        flusher = new Thread(this::flushPeriodically, "session-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        flush();
+    }
+
+    public void write(Session session) {
+        tokenBytes(session);
+        if (!hasRoomFor(session.getToken())) {
+            dropped.increment();
+            return;
+        }
+        pending.put(session.getToken(), session);
+        if (pending.size() >= batchSize && flusher != null) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    public void writeNow(Session session) {
+        String token = session.getToken();
+        // a queued write to this token taken by a running flush must land before this one, not after it
+        do {
+            awaitFlushOf(token);
+            pending.remove(token);
+        } while (inFlight.containsKey(token));
+        mongoTemplate.upsert(byToken(session), partialUpdate(session), StoredSession.class);
+    }
+
+    public Optional<Session> pending(String token) {
+        return token == null ? Optional.empty() : Optional.ofNullable(pending.get(token));
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Session> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            CountDownLatch flushed = new CountDownLatch(1);
+            for (Map.Entry<String, Session> entry : pending.entrySet()) {
+                // marked in flight before leaving pending, so writeNow never misses it
+                inFlight.put(entry.getKey(), flushed);
+                // a newer write to the same token stays queued for the next flush
+                if (pending.remove(entry.getKey(), entry.getValue())) {
+                    batch.add(entry.getValue());
+                } else {
+                    inFlight.remove(entry.getKey(), flushed);
+                }
+                if (batch.size() == batchSize) {
+                    execute(batch, flushed);
+                    batch.clear();
+                    flushed = new CountDownLatch(1);
+                }
+            }
+            execute(batch, flushed);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void execute(List<Session> batch, CountDownLatch flushed) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StoredSession.class);
+            for (Session session : batch) {
+                operations.upsert(byToken(session), partialUpdate(session));
+            }
+            operations.execute();
+        } catch (RuntimeException e) {
+            LOG.warn("session bulk write of {} sessions failed, retrying on next flush", batch.size(), e);
+            for (Session session : batch) {
+                if (hasRoomFor(session.getToken())) {
+                    pending.putIfAbsent(session.getToken(), session);
+                } else {
+                    dropped.increment();
+                }
+            }
+        } finally {
+            batch.forEach(session -> inFlight.remove(session.getToken(), flushed));
+            flushed.countDown();
+        }
+    }
+
+    private boolean hasRoomFor(String token) {
+        return pending.size() < maxPending || pending.containsKey(token);
+    }
+
+    private void awaitFlushOf(String token) {
+        CountDownLatch flushed = inFlight.get(token);
+        if (flushed == null) {
+            return;
+        }
+        try {
+            flushed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted waiting for a session flush", e);
+        }
+    }
+
+    private void flushPeriodically() {
+        while (running) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushMillis));
+            flush();
+        }
+    }
+
+    private static Query byToken(Session session) {
+        return Query.query(Criteria.where(TOKEN).is(tokenBytes(session)));
+    }
+
+    private static byte[] tokenBytes(Session session) {
+        byte[] token = HexEncoder.decode(session.getToken());
+        if (token == null) {
+            throw new IllegalArgumentException("session token is not hex encoded");
+        }
+        return token;
+    }
+
+    private static Update partialUpdate(Session session) {
+        Update update = new Update();
+        if (session.getGrant() != null) {
+            update.set("grant", session.getGrant().getLevel());
+        }
+        if (session.getUserId() != null) {
+            update.set("userId", session.getUserId());
+        }
+        if (session.getDate() != null) {
+            update.set("expiry", session.getDate().getTime());
+        }
+        return update;
+    }
+}
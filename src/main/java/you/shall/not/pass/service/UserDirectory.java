@@ -0,0 +1,182 @@
+package you.shall.not.pass.service;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import you.shall.not.pass.domain.User;
+import you.shall.not.pass.event.UserProvisionedEvent;
+import you.shall.not.pass.repositories.UserRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process copy of the user collection keyed by user name. Once loaded it is authoritative, so logins
+ * never query the collection. It is kept fresh from a change stream, or by comparing user versions on
+ * every refresh when the server does not support change streams (e.g. a standalone mongod).
+ */
+@Service
+public class UserDirectory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserDirectory.class);
+
+    private static final String USER_NAME = "userName";
+    private static final String VERSION = "version";
+
+    private final UserRepository repository;
+    private final MongoTemplate mongoTemplate;
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+    private volatile boolean watching;
+    private MongoCursor<ChangeStreamDocument<Document>> changes;
+
+    public UserDirectory(UserRepository repository, MongoTemplate mongoTemplate) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void load() {
+        watching = openChangeStream();
+        repository.findAll().forEach(this::put);
+        loaded = true;
+        LOG.info("loaded {} users, refreshing by {}", users.size(), watching ? "change stream" : "version polling");
+
+        if (watching) {
+            Thread watcher = new Thread(this::watch, "user-directory-watch");
+            watcher.setDaemon(true);
+            watcher.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        watching = false;
+        if (changes != null) {
+            changes.close();
+        }
+    }
+
+    public Optional<User> findByUserName(String userName) {
+        User user = users.get(userName);
+        if (user != null || loaded) {
+            return Optional.ofNullable(user);
+        }
+        Optional<User> stored = repository.findByUserName(userName);
+        stored.ifPresent(this::put);
+        return stored;
+    }
+
+    @EventListener
+    public void onUserProvisioned(UserProvisionedEvent event) {
+        Optional<User> stored = repository.findByUserName(event.getUserName());
+        if (stored.isPresent()) {
+            put(stored.get());
+        } else {
+            users.remove(event.getUserName());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "#{${user.directory.refresh.seconds} * 1000}")
+    public void refresh() {
+        if (!loaded || watching) {
+            return;
+        }
+        try {
+            Query stamps = new Query();
+            stamps.fields().include(USER_NAME).include(VERSION);
+            List<Document> current = mongoTemplate.find(stamps, Document.class, mongoTemplate.getCollectionName(User.class));
+
+            Set<String> names = new HashSet<>();
+            for (Document stamp : current) {
+                String userName = stamp.getString(USER_NAME);
+                names.add(userName);
+                User cached = users.get(userName);
+                if (cached == null || cached.getVersion() != version(stamp)) {
+                    repository.findByUserName(userName).ifPresent(this::put);
+                }
+            }
+            users.keySet().retainAll(names);
+        } catch (RuntimeException e) {
+            LOG.warn("user directory refresh failed, keeping current users", e);
+        }
+    }
+
+    private boolean openChangeStream() {
+        try {
+            changes = mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class))
+                    .watch()
+                    .fullDocument(FullDocument.UPDATE_LOOKUP)
+                    .iterator();
+            return true;
+        } catch (MongoException | DataAccessException e) {
+            LOG.info("change streams not available ({}), polling user versions instead", e.getMessage());
+            return false;
+        }
+    }
+
+    private void watch() {
+        try {
+            while (watching && changes.hasNext()) {
+                apply(changes.next());
+            }
+        } catch (MongoException | DataAccessException | IllegalStateException e) {
+            if (watching) {
+                LOG.warn("user change stream failed, polling user versions instead", e);
+            }
+        } finally {
+            watching = false;
+        }
+    }
+
+    private void apply(ChangeStreamDocument<Document> change) {
+        switch (change.getOperationType()) {
+            case INSERT:
+            case UPDATE:
+            case REPLACE:
+                if (change.getFullDocument() != null) {
+                    User user = mongoTemplate.getConverter().read(User.class, change.getFullDocument());
+                    // a renamed user must not stay reachable, with its old password, under the old name
+                    users.entrySet().removeIf(entry -> entry.getValue().getId().equals(user.getId())
+                            && !entry.getKey().equals(user.getUserName()));
+                    put(user);
+                }
+                break;
+            case DELETE:
+                BsonValue id = change.getDocumentKey().get("_id");
+                String userId = id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+                users.values().removeIf(user -> userId.equals(user.getId()));
+                break;
+            default:
+                LOG.info("user change stream ended with {}, polling user versions instead", change.getOperationType());
+                watching = false;
+        }
+    }
+
+    private void put(User user) {
+        users.put(user.getUserName(), user);
+    }
+
+    private static long version(Document stamp) {
+        Object version = stamp.get(VERSION);
+        return version instanceof Number ? ((Number) version).longValue() : 0;
+    }
+}
@@ -1,27 +1,24 @@
 package you.shall.not.pass.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Example;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import you.shall.not.pass.domain.User;
-import you.shall.not.pass.repositories.UserRepository;
 
 import java.util.Optional;
 
 @Service
 public class UserService {
 
-    private final UserRepository repository;
+    private final UserDirectory directory;
 
     @Autowired
-    public UserService(UserRepository repository) {
-        this.repository = repository;
+    public UserService(UserDirectory directory) {
+        this.directory = directory;
     }
 
     public User getUserByName(String name) {
-        Example<User> example = Example.of(User.builder().userName(name).build());
-        Optional<User> OptionalUser = repository.findOne(example);
+        Optional<User> OptionalUser = directory.findByUserName(name);
         User user = OptionalUser.orElseThrow(() -> new UsernameNotFoundException("User not found"));
         return user;
     }
@@ -0,0 +1,30 @@
+package you.shall.not.pass.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VirtualThreadConfigTest {
+
+    @Test
+    void shouldRunTasksOnVirtualThreadsOrRefuseToStart() throws Exception {
+        Method isVirtual;
+        try {
+            isVirtual = Thread.class.getMethod("isVirtual");
+        } catch (NoSuchMethodException e) {
+            assertThrows(IllegalStateException.class, VirtualThreadConfig::newVirtualThreadPerTaskExecutor);
+            return;
+        }
+
+        ExecutorService executor = VirtualThreadConfig.newVirtualThreadPerTaskExecutor();
+        try {
+            assertEquals(Boolean.TRUE, executor.submit(() -> isVirtual.invoke(Thread.currentThread())).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package you.shall.not.pass.controller;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import you.shall.not.pass.dto.ResponseBodies;
+import you.shall.not.pass.filter.staticresource.StaticResourceListing;
+import you.shall.not.pass.filter.staticresource.StaticResourceService;
+
+import java.util.Arrays;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The /resources listing of {@link GateController} on its own, without the application context or Mongo.
+ */
+class GateControllerResourcesTest {
+
+	private static final String LISTING = "{\"resources\":[\"/css/main.css\",\"/Level1/low_access.html\"]}";
+
+	private MockMvc mvc;
+	private StaticResourceListing resourceListing;
+
+	@BeforeEach
+	void setup() {
+		StaticResourceService resourceService = mock(StaticResourceService.class);
+		when(resourceService.getAllStaticResources()).thenReturn(Arrays.asList("/css/main.css", "/Level1/low_access.html"));
+		resourceListing = new StaticResourceListing(resourceService, new Gson());
+		resourceListing.serialize();
+
+		mvc = MockMvcBuilders.standaloneSetup(new GateController(null, null, resourceListing, null,
+				new ResponseBodies(new Gson()))).build();
+	}
+
+	@Test
+	void shouldServeListingWithEtag() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.get("/resources"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(LISTING))
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, GateController.JSON_CONTENT_TYPE))
+				.andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, LISTING.length()))
+				.andExpect(header().string(HttpHeaders.ETAG, resourceListing.getEtag()))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, GateController.LISTING_CACHE_CONTROL));
+	}
+
+	@Test
+	void shouldAnswerNotModifiedForUnchangedListing() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.get("/resources").header(HttpHeaders.IF_NONE_MATCH, resourceListing.getEtag()))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, resourceListing.getEtag()))
+				.andExpect(content().string(""));
+
+		mvc.perform(MockMvcRequestBuilders.get("/resources").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+				.andExpect(status().isOk())
+				.andExpect(content().string(LISTING));
+	}
+}
@@ -93,6 +93,19 @@ public class GateControllerTest {
 				.andExpect(status().isUnauthorized());
 	}
 
+	@Test
+	public void shouldRequireAuthenticationForActuatorMetrics() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.get("/actuator/health"))
+				.andExpect(status().isOk());
+		mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+				.andExpect(status().isUnauthorized());
+		mvc.perform(MockMvcRequestBuilders.get("/actuator/metrics"))
+				.andExpect(status().isUnauthorized());
+		mvc.perform(MockMvcRequestBuilders.get("/actuator/metrics")
+				.with(httpBasic(LEVEL_1_USERNAME, VALID_LEVEL1_PASSWORD)))
+				.andExpect(status().isOk());
+	}
+
 	@Test
 	public void shouldLoginAndResponseHasGrantCookie() throws Exception {
 		MockHttpServletResponse response = loginWithLevel1User();
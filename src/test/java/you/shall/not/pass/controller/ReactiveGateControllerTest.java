@@ -0,0 +1,223 @@
+package you.shall.not.pass.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The {@link GateControllerTest} scenarios against the reactive gateway on Netty.
+ */
+@AutoConfigureWebTestClient
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.main.web-application-type=reactive")
+class ReactiveGateControllerTest {
+
+	private static final String CSRF_COOKIE_NAME = "CSRF";
+	private static final String XSRF_GUARD_NAME = "XSRF";
+	private static final String GRANT_COOKIE_NAME = "GRANT";
+	private static final String PUBLIC_RESOURCE_PATH = "/css/main.css";
+	private static final String LEVEL_1_RESOURCE_PATH = "/Level1/low/access.html";
+	private static final String LEVEL_2_RESOURCE_PATH = "/Level2/what/am/I/access.html";
+	private static final String VALID_LEVEL1_PASSWORD = "12341";
+	private static final String LEVEL_1_USERNAME = "1#bob";
+	private static final String LEVEL_2_USERNAME = "2#bob";
+
+	@Autowired
+	private WebTestClient client;
+
+	@LocalServerPort
+	private int port;
+
+	@Test
+	void shouldLoginWithValidCredentialsAndDomain() {
+		client.get().uri("/access")
+				.headers(headers -> headers.setBasicAuth(LEVEL_1_USERNAME, VALID_LEVEL1_PASSWORD))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody().json("{'authenticated':true}");
+	}
+
+	@Test
+	void shouldReturnGrantCookieWithAnyRequest() {
+		EntityExchangeResult<byte[]> home = client.get().uri("/home")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.returnResult();
+
+		assertNotNull(cookie(home, GRANT_COOKIE_NAME));
+	}
+
+	@Test
+	void shouldFailLoginWithWrongPassword() {
+		client.get().uri("/access")
+				.headers(headers -> headers.setBasicAuth(LEVEL_1_USERNAME, "wrongPassword"))
+				.exchange()
+				.expectStatus().isUnauthorized();
+	}
+
+	@Test
+	void shouldFailLoginWithValidCredentialsToIncorrectDomain() {
+		client.get().uri("/access")
+				.headers(headers -> headers.setBasicAuth(LEVEL_2_USERNAME, VALID_LEVEL1_PASSWORD))
+				.exchange()
+				.expectStatus().isUnauthorized();
+	}
+
+	@Test
+	void shouldRequireAuthenticationForActuatorMetrics() {
+		client.get().uri("/actuator/health")
+				.exchange()
+				.expectStatus().isOk();
+		client.get().uri("/actuator/prometheus")
+				.exchange()
+				.expectStatus().isUnauthorized();
+		client.get().uri("/actuator/metrics")
+				.exchange()
+				.expectStatus().isUnauthorized();
+		client.get().uri("/actuator/metrics")
+				.headers(headers -> headers.setBasicAuth(LEVEL_1_USERNAME, VALID_LEVEL1_PASSWORD))
+				.exchange()
+				.expectStatus().isOk();
+	}
+
+	@Test
+	void shouldLoginAndResponseHasGrantAndCsrfCookies() {
+		EntityExchangeResult<byte[]> login = login(LEVEL_1_USERNAME, VALID_LEVEL1_PASSWORD);
+
+		assertNotNull(cookie(login, GRANT_COOKIE_NAME));
+		assertNotNull(cookie(login, CSRF_COOKIE_NAME));
+	}
+
+	@Test
+	void shouldAccessResourcesPage() {
+		String content = client.get().uri("/resources")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(String.class)
+				.returnResult()
+				.getResponseBody();
+
+		assertTrue(content.contains(LEVEL_1_RESOURCE_PATH));
+		assertTrue(content.contains(LEVEL_2_RESOURCE_PATH));
+	}
+
+	@Test
+	void shouldAnswerNotModifiedForUnchangedResourcesPage() {
+		String etag = client.get().uri("/resources")
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(String.class)
+				.getResponseHeaders().getETag();
+
+		client.get().uri("/resources")
+				.header(HttpHeaders.IF_NONE_MATCH, etag)
+				.exchange()
+				.expectStatus().isNotModified()
+				.expectBody().isEmpty();
+	}
+
+	@Test
+	void shouldAccessPublicResourceResourcesWhenLoggedIn() {
+		EntityExchangeResult<byte[]> login = login(LEVEL_1_USERNAME, VALID_LEVEL1_PASSWORD);
+
+		assertTrue(requestResource(login, PUBLIC_RESOURCE_PATH).contains(".hello-title"));
+	}
+
+	@Test
+	void shouldAccessPublicResourceResourcesWithNoUser() {
+		String content = client.get().uri(PUBLIC_RESOURCE_PATH)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(String.class)
+				.returnResult()
+				.getResponseBody();
+
+		assertTrue(content.contains(".hello-title"));
+	}
+
+	@Test
+	void shouldAccessLevel1Resources() {
+		EntityExchangeResult<byte[]> login = login(LEVEL_1_USERNAME, VALID_LEVEL1_PASSWORD);
+
+		assertTrue(requestResource(login, LEVEL_1_RESOURCE_PATH).contains("<h2>Sponge bob</h2>"));
+	}
+
+	@Test
+	void shouldAccessLevel2Resources() {
+		EntityExchangeResult<byte[]> login = login(LEVEL_2_USERNAME, "test1");
+
+		assertTrue(requestResource(login, LEVEL_2_RESOURCE_PATH).contains("<h2>Smooth Criminal</h2>"));
+	}
+
+	@Test
+	void shouldRejectProtectedResourceWithoutSessionOrCsrf() {
+		client.get().uri(LEVEL_1_RESOURCE_PATH)
+				.exchange()
+				.expectStatus().isForbidden();
+
+		EntityExchangeResult<byte[]> login = login(LEVEL_1_USERNAME, VALID_LEVEL1_PASSWORD);
+		client.get().uri(LEVEL_1_RESOURCE_PATH)
+				.cookie(GRANT_COOKIE_NAME, cookie(login, GRANT_COOKIE_NAME))
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	void shouldRejectProtectedResourceBehindNonNormalizedPath() {
+		for (String path : new String[]{"//Level1/low/access.html", "/css/../Level1/low/access.html"}) {
+			// a full URI, the client's uri builder would take a leading // for a host and tidy the path
+			client.get().uri(URI.create("http://localhost:" + port + path))
+					.exchange()
+					.expectStatus().isForbidden();
+		}
+	}
+
+	private String requestResource(EntityExchangeResult<byte[]> login, String path) {
+		String csrf = cookie(login, CSRF_COOKIE_NAME);
+		String grant = cookie(login, GRANT_COOKIE_NAME);
+
+		return client.get().uri(path)
+				.header(XSRF_GUARD_NAME, csrf)
+				.cookie(CSRF_COOKIE_NAME, csrf)
+				.cookie(GRANT_COOKIE_NAME, grant)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(String.class)
+				.returnResult()
+				.getResponseBody();
+	}
+
+	private EntityExchangeResult<byte[]> login(String username, String password) {
+		return client.get().uri("/access")
+				.headers(headers -> headers.setBasicAuth(username, password))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.returnResult();
+	}
+
+	// the client's cookie parsing drops our cookies, so read the Set-Cookie headers as written, the last one wins
+	private static String cookie(EntityExchangeResult<byte[]> result, String name) {
+		List<String> setCookies = result.getResponseHeaders().getOrDefault(HttpHeaders.SET_COOKIE, Collections.emptyList());
+		String value = null;
+		for (String setCookie : setCookies) {
+			if (setCookie.startsWith(name + "=")) {
+				value = setCookie.substring(name.length() + 1, setCookie.indexOf(';'));
+			}
+		}
+		return value;
+	}
+}
@@ -0,0 +1,42 @@
+package you.shall.not.pass.dto;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.exception.AccessGrantException;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ResponseBodiesTest {
+
+    private final ResponseBodies responseBodies = new ResponseBodies(new Gson());
+
+    @Test
+    void shouldEncodeEachBodyOnce() {
+        assertEquals("{\"authenticated\":true}", json(responseBodies.success(true)));
+        assertEquals("{\"authenticated\":false}", json(responseBodies.success(false)));
+        assertSame(responseBodies.success(true), responseBodies.success(true));
+
+        byte[] denied = responseBodies.accessViolation(Access.Level2, "invalid access level");
+        assertEquals("{\"requiredAccess\":\"Level2\",\"message\":\"invalid access level\"}", json(denied));
+        assertSame(denied, responseBodies.accessViolation(Access.Level2, "invalid access level"));
+        assertNotSame(denied, responseBodies.accessViolation(Access.Level1, "invalid access level"));
+
+        byte[] csrf = responseBodies.csrfViolation("CSRF Token is not valid.");
+        assertEquals("{\"csrfPassed\":false,\"message\":\"CSRF Token is not valid.\"}", json(csrf));
+        assertSame(csrf, responseBodies.csrfViolation("CSRF Token is not valid."));
+    }
+
+    @Test
+    void shouldThrowRejectionsWithoutStackTrace() {
+        assertEquals(0, new AccessGrantException(Access.Level1, "invalid access level").getStackTrace().length);
+    }
+
+    private static String json(byte[] body) {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
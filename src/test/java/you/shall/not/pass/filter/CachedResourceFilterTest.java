@@ -0,0 +1,144 @@
+package you.shall.not.pass.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.filter.staticresource.StaticResourceCache;
+import you.shall.not.pass.filter.staticresource.StaticResourceIndex;
+import you.shall.not.pass.filter.staticresource.StaticResourceService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CachedResourceFilterTest {
+
+    private static final String PAGE = "/Level1/page.html";
+    private static final String STYLE = "/css/tiny.css";
+
+    private final StaticResourceIndex staticResourceIndex = mock(StaticResourceIndex.class);
+    private byte[] page;
+    private CachedResourceFilter filter;
+
+    @BeforeEach
+    void setup(@TempDir Path directory) throws Exception {
+        StringBuilder html = new StringBuilder("<html><body>");
+        for (int i = 0; i < 200; i++) {
+            html.append("<p>you shall not pass</p>");
+        }
+        page = html.append("</body></html>").toString().getBytes(StandardCharsets.UTF_8);
+        write(directory.resolve("static/Level1/page.html"), page);
+        write(directory.resolve("static/Level1/page.html.br"), new byte[]{1, 2, 3});
+        write(directory.resolve("static/css/tiny.css"), "p{}".getBytes(StandardCharsets.UTF_8));
+
+        StaticResourceService resourceService = mock(StaticResourceService.class);
+        when(resourceService.getAllStaticResources())
+                .thenReturn(Arrays.asList(PAGE, PAGE + ".br", STYLE));
+        when(resourceService.getResource(anyString()))
+                .thenAnswer(invocation -> new FileSystemResource(directory.resolve("static" + invocation.getArgument(0))));
+
+        StaticResourceCache cache = new StaticResourceCache(resourceService);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxFileBytes", 1_048_576L);
+        cache.load();
+
+        when(staticResourceIndex.requiredAccess(anyString())).thenReturn(Optional.empty());
+        when(staticResourceIndex.requiredAccess(PAGE)).thenReturn(Optional.of(Access.Level1));
+        filter = new CachedResourceFilter(cache, staticResourceIndex);
+    }
+
+    @Test
+    void shouldServeCachedVariantsWithEtagAndPrivateCachingForProtectedResources() throws Exception {
+        MockHttpServletResponse identity = get(PAGE, null, null);
+        assertArrayEquals(page, identity.getContentAsByteArray());
+        assertEquals("text/html", identity.getContentType());
+        assertEquals(page.length, identity.getContentLength());
+        assertEquals(CachedResourceFilter.PROTECTED_CACHE_CONTROL, identity.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, identity.getHeader(HttpHeaders.VARY));
+        assertNull(identity.getHeader(HttpHeaders.CONTENT_ENCODING));
+
+        MockHttpServletResponse gzip = get(PAGE, "gzip, deflate, br;q=0", null);
+        assertEquals("gzip", gzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(page, gunzip(gzip.getContentAsByteArray()));
+        assertNotEquals(identity.getHeader(HttpHeaders.ETAG), gzip.getHeader(HttpHeaders.ETAG));
+
+        MockHttpServletResponse brotli = get(PAGE, "gzip, br", null);
+        assertEquals("br", brotli.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(new byte[]{1, 2, 3}, brotli.getContentAsByteArray());
+
+        MockHttpServletResponse style = get(STYLE, "gzip", null);
+        assertEquals(CachedResourceFilter.PUBLIC_CACHE_CONTROL, style.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertNull(style.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(style.getHeader(HttpHeaders.VARY));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedOnlyForTheEtagOfTheSelectedVariant() throws Exception {
+        String etag = get(PAGE, null, null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse notModified = get(PAGE, null, "\"other\", W/" + etag);
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+        assertEquals(etag, notModified.getHeader(HttpHeaders.ETAG));
+
+        assertEquals(200, get(PAGE, "gzip", etag).getStatus());
+    }
+
+    @Test
+    void shouldPassOnRequestsItDoesNotServe() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/Level1/missing.html"), new MockHttpServletResponse(), chain);
+        assertNotNull(chain.getRequest());
+
+        chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("POST", PAGE), new MockHttpServletResponse(), chain);
+        assertNotNull(chain.getRequest());
+    }
+
+    private MockHttpServletResponse get(String uri, String acceptEncoding, String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        assertNull(chain.getRequest());
+        return response;
+    }
+
+    private static void write(Path file, byte[] content) throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+    }
+
+    private static byte[] gunzip(byte[] body) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return StreamUtils.copyToByteArray(in);
+        }
+    }
+}
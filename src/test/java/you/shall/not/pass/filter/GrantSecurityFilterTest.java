@@ -0,0 +1,75 @@
+package you.shall.not.pass.filter;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.domain.Session;
+import you.shall.not.pass.dto.ResponseBodies;
+import you.shall.not.pass.filter.staticresource.StaticResourceIndex;
+import you.shall.not.pass.logging.AccessLogService;
+import you.shall.not.pass.metrics.GatewayMetrics;
+import you.shall.not.pass.service.CookieService;
+import you.shall.not.pass.service.CsrfProtectionService;
+import you.shall.not.pass.service.SessionService;
+
+import javax.servlet.http.Cookie;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GrantSecurityFilterTest {
+
+    private static final String TOKEN = "75DA5FAF2470BAA375DA5FAF2470BAA3";
+    private static final String PROTECTED = "/Level1/low_access.html";
+
+    private SessionService sessionService;
+    private GrantSecurityFilter filter;
+    private Session session;
+
+    @BeforeEach
+    void setup() {
+        sessionService = mock(SessionService.class);
+        StaticResourceIndex staticResourceIndex = mock(StaticResourceIndex.class);
+        when(staticResourceIndex.requiredAccess(PROTECTED)).thenReturn(Optional.of(Access.Level1));
+        CsrfProtectionService csrfProtectionService = mock(CsrfProtectionService.class);
+        when(csrfProtectionService.getCsrfCookie()).thenReturn("CSRF=reissued");
+
+        session = Session.builder().token(TOKEN).grant(Access.Level1)
+                .date(new Date(System.currentTimeMillis() + 60_000)).build();
+        when(sessionService.findSessionByToken(TOKEN)).thenReturn(Optional.of(session));
+
+        filter = new GrantSecurityFilter(new ResponseBodies(new Gson()), new CookieService(), sessionService,
+                staticResourceIndex, csrfProtectionService, mock(AccessLogService.class), mock(GatewayMetrics.class));
+    }
+
+    @Test
+    void shouldReissueCsrfCookieWhenSessionIsRenewed() throws Exception {
+        when(sessionService.renewSession(session)).thenReturn(Optional.of("GRANT=renewed"));
+
+        assertEquals(Arrays.asList("GRANT=renewed", "CSRF=reissued"), filter(PROTECTED).getHeaders("Set-Cookie"));
+    }
+
+    @Test
+    void shouldKeepCookiesUntilSessionIsRenewed() throws Exception {
+        when(sessionService.renewSession(session)).thenReturn(Optional.empty());
+
+        assertEquals(Collections.emptyList(), filter(PROTECTED).getHeaders("Set-Cookie"));
+    }
+
+    private MockHttpServletResponse filter(String uri) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setCookies(new Cookie(GrantSecurityFilter.SESSION_COOKIE_NAME, TOKEN));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
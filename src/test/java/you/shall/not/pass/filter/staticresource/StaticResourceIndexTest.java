@@ -0,0 +1,151 @@
+package you.shall.not.pass.filter.staticresource;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import you.shall.not.pass.domain.Access;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class StaticResourceIndexTest {
+
+    @Test
+    void shouldResolveRequiredAccessIgnoringCase() {
+        StaticResourceIndex index = index(
+                validator(Access.Level1, "/Level1/low_access.html"),
+                validator(Access.Level2, "/Level2/high_access.html"));
+
+        assertEquals(Optional.of(Access.Level1), index.requiredAccess("/level1/LOW_access.html"));
+        assertEquals(Optional.of(Access.Level2), index.requiredAccess("/Level2/high_access.html"));
+        assertFalse(index.requiredAccess("/css/main.css").isPresent());
+        assertFalse(index.requiredAccess(null).isPresent());
+    }
+
+    @Test
+    void shouldMatchEncodedRequestUrisAgainstDecodedResourcePaths() {
+        StaticResourceIndex index = index(
+                validator(Access.Level1, "/Level1/low access.html"),
+                validator(Access.Level2, "/Level2/\u00fcber.html"));
+
+        assertEquals(Optional.of(Access.Level1), index.requiredAccess("/Level1/low%20access.html"));
+        assertEquals(Optional.of(Access.Level2), index.requiredAccess("/Level2/%C3%BCber.html"));
+        assertFalse(index.requiredAccess("/Level1/low%2").isPresent());
+    }
+
+    @Test
+    void shouldMatchNonNormalizedRequestUrisAgainstTheResourceTheyResolveTo() {
+        StaticResourceIndex index = index(validator(Access.Level1, "/Level1/low_access.html"));
+
+        assertEquals(Optional.of(Access.Level1), index.requiredAccess("//Level1/low_access.html"));
+        assertEquals(Optional.of(Access.Level1), index.requiredAccess("/css/../Level1/low_access.html"));
+        assertEquals(Optional.of(Access.Level1), index.requiredAccess("/css/%2E%2E/Level1/./low_access.html"));
+        assertEquals(Optional.of(Access.Level1), index.requiredAccess("/../Level1/low_access.html"));
+        assertEquals(Optional.of(Access.Level1), index.requiredAccess("/\\Level1\\low_access.html"));
+        assertFalse(index.requiredAccess("/Level1/../css/main.css").isPresent());
+    }
+
+    @Test
+    void shouldRequireStrictestLevelWhenResourceIsListedTwice() {
+        StaticResourceIndex index = index(
+                validator(Access.Level2, "/shared.html"),
+                validator(Access.Level1, "/SHARED.html"));
+
+        assertEquals(Optional.of(Access.Level2), index.requiredAccess("/shared.html"));
+    }
+
+    @Test
+    void shouldIndexLargeResourceSets() {
+        List<String> resources = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            resources.add("/Level1/asset-" + i + ".html");
+        }
+        StaticResourceIndex index = index(validator(Access.Level1, resources.toArray(new String[0])));
+
+        for (String resource : resources) {
+            assertEquals(Optional.of(Access.Level1), index.requiredAccess(resource));
+        }
+        assertFalse(index.requiredAccess("/Level1/asset-100000.html").isPresent());
+    }
+
+    @Test
+    void shouldLetPolicyFileOverrideBuiltInLevelsAndSwapOnChange(@TempDir Path directory) throws Exception {
+        Path policy = directory.resolve("access-policy.json");
+        write(policy, "{'rules':[{'pattern':'/Level1/**','access':'Level2'},{'pattern':'/reports/*.pdf','access':'Level1'}]}");
+        StaticResourceIndex index = index(policy.toString(), validator(Access.Level1, "/Level1/low_access.html"));
+
+        assertEquals(Optional.of(Access.Level2), index.requiredAccess("/Level1/low_access.html"));
+        assertEquals(Optional.of(Access.Level2), index.requiredAccess("/level1/not/listed.html"));
+        assertEquals(Optional.of(Access.Level1), index.requiredAccess("/reports/q1.pdf"));
+        assertFalse(index.requiredAccess("/Level10/other.html").isPresent());
+
+        write(policy, "{'rules':[]}");
+        Files.setLastModifiedTime(policy, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        index.refreshPolicy();
+
+        assertEquals(Optional.of(Access.Level1), index.requiredAccess("/Level1/low_access.html"));
+        assertFalse(index.requiredAccess("/reports/q1.pdf").isPresent());
+    }
+
+    @Test
+    void shouldKeepCurrentPolicyWhenReloadFails(@TempDir Path directory) throws Exception {
+        Path policy = directory.resolve("access-policy.json");
+        write(policy, "{'rules':[{'pattern':'/private/**','access':'Level2'}]}");
+        StaticResourceIndex index = index(policy.toString());
+
+        write(policy, "{'rules':[{'pattern':'private','access':'Level9'}]}");
+        Files.setLastModifiedTime(policy, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        index.refreshPolicy();
+
+        assertEquals(Optional.of(Access.Level2), index.requiredAccess("/private/file.html"));
+    }
+
+    private StaticResourceIndex index(StaticResourceValidator... validators) {
+        return index("", validators);
+    }
+
+    private StaticResourceIndex index(String policyLocation, StaticResourceValidator... validators) {
+        AccessPolicyFile policyFile = new AccessPolicyFile(new Gson());
+        ReflectionTestUtils.setField(policyFile, "location", policyLocation);
+        StaticResourceIndex index = new StaticResourceIndex(Arrays.asList(validators), policyFile);
+        index.buildIndex();
+        return index;
+    }
+
+    private void write(Path policy, String json) throws Exception {
+        Files.write(policy, json.replace('\'', '"').getBytes(StandardCharsets.UTF_8));
+    }
+
+    private StaticResourceValidator validator(Access access, String... resources) {
+        return new StaticResourceValidator() {
+            @Override
+            public boolean isApplicable(String requestUri) {
+                return getStaticResources().contains(requestUri);
+            }
+
+            @Override
+            public Access requires() {
+                return access;
+            }
+
+            @Override
+            public void setList() {
+            }
+
+            @Override
+            public List<String> getStaticResources() {
+                return Arrays.asList(resources);
+            }
+        };
+    }
+}
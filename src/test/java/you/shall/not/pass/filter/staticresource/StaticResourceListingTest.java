@@ -0,0 +1,40 @@
+package you.shall.not.pass.filter.staticresource;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StaticResourceListingTest {
+
+    @Test
+    void shouldSerializeListingOnceWithStrongEtag() {
+        StaticResourceService resourceService = mock(StaticResourceService.class);
+        when(resourceService.getAllStaticResources()).thenReturn(Arrays.asList("/css/main.css", "/Level1/low_access.html"));
+        StaticResourceListing listing = new StaticResourceListing(resourceService, new Gson());
+        listing.serialize();
+
+        assertEquals("{\"resources\":[\"/css/main.css\",\"/Level1/low_access.html\"]}",
+                new String(listing.getBody(), StandardCharsets.UTF_8));
+        assertSame(listing.getBody(), listing.getBody());
+        verify(resourceService, times(1)).getAllStaticResources();
+
+        String etag = listing.getEtag();
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertTrue(listing.isNotModified(etag));
+        assertTrue(listing.isNotModified("\"stale\", W/" + etag));
+        assertTrue(listing.isNotModified("*"));
+        assertFalse(listing.isNotModified("\"stale\""));
+        assertFalse(listing.isNotModified(null));
+    }
+}
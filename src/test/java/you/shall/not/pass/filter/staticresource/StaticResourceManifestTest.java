@@ -0,0 +1,78 @@
+package you.shall.not.pass.filter.staticresource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+import you.shall.not.pass.domain.Access;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StaticResourceManifestTest {
+
+    @Test
+    void shouldWriteManifestOfStaticTreeAndReadItBackFromClasspath(@TempDir Path classes) throws Exception {
+        Path root = classes.resolve("static");
+        for (String path : Arrays.asList("Level1/low_access.html", "Level2/what/am/I/access.html",
+                "css/main.css", "Level10/other.html", "readme.txt")) {
+            Files.createDirectories(root.resolve(path).getParent());
+            Files.write(root.resolve(path), new byte[]{1});
+        }
+
+        StaticResourceManifest.main(new String[]{root.toString(),
+                classes.resolve(StaticResourceManifest.LOCATION).toString()});
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, null)) {
+            StaticResourceManifest manifest = StaticResourceManifest.read(classLoader).orElseThrow(IllegalStateException::new);
+
+            assertEquals(Arrays.asList("/Level1/low_access.html", "/Level10/other.html",
+                    "/Level2/what/am/I/access.html", "/css/main.css", "/readme.txt"), manifest.getResources());
+            assertEquals(Collections.singletonList("/Level1/low_access.html"), manifest.getResources(Access.Level1));
+            assertEquals(Collections.singletonList("/Level2/what/am/I/access.html"), manifest.getResources(Access.Level2));
+            assertEquals(Collections.emptyList(), manifest.getResources(Access.Level0));
+        }
+    }
+
+    @Test
+    void shouldListTheSameDecodedPathsWhenScanningWithoutManifest(@TempDir Path classes) throws Exception {
+        Path root = classes.resolve("static");
+        for (String path : Arrays.asList("Level1/low access.html", "Level2/faq #1.html", "css/main.css")) {
+            Files.createDirectories(root.resolve(path).getParent());
+            Files.write(root.resolve(path), new byte[]{1});
+        }
+        StaticResourceManifest.main(new String[]{root.toString(), classes.resolve("built.manifest").toString()});
+        List<String> built = Files.readAllLines(classes.resolve("built.manifest"));
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, null)) {
+            StaticResourceService service = new StaticResourceService(new DefaultResourceLoader(classLoader));
+            ReflectionTestUtils.setField(service, "context", "/static");
+            service.loadManifest();
+
+            assertEquals(Arrays.asList("Level1\t/Level1/low access.html", "Level2\t/Level2/faq #1.html", "-\t/css/main.css"),
+                    built);
+            assertEquals(Collections.singletonList("/Level1/low access.html"), service.getStaticResources(Access.Level1));
+            assertEquals(Collections.singletonList("/Level2/faq #1.html"), service.getStaticResources(Access.Level2));
+            assertTrue(service.getResource("/Level1/low access.html").exists());
+        }
+    }
+
+    @Test
+    void shouldReportMissingManifest(@TempDir Path classes) throws Exception {
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, null)) {
+            assertFalse(StaticResourceManifest.read(classLoader).isPresent());
+        }
+        assertNull(StaticResourceManifest.levelOf("/Level1"));
+        assertEquals(Access.Level2, StaticResourceManifest.levelOf("/Level2/high_access.html"));
+    }
+}
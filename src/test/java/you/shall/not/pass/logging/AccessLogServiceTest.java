@@ -0,0 +1,122 @@
+package you.shall.not.pass.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import you.shall.not.pass.domain.Access;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessLogServiceTest {
+
+    private static final String TOKEN = "75DA5FAF2470BAA375DA5FAF2470BAA3";
+
+    private final Logger accessLog = (Logger) LoggerFactory.getLogger("you.shall.not.pass.access");
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch writable = new CountDownLatch(1);
+    private final ListAppender<ILoggingEvent> events = new ListAppender<ILoggingEvent>() {
+        @Override
+        protected void append(ILoggingEvent event) {
+            try {
+                writable.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.append(event);
+        }
+    };
+
+    private AccessLogService accessLogService;
+
+    @BeforeEach
+    void setup() {
+        events.start();
+        accessLog.addAppender(events);
+        accessLog.setLevel(Level.INFO);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writable.countDown();
+        accessLogService.stop();
+        accessLog.detachAppender(events);
+    }
+
+    @Test
+    void shouldSampleAllowedRequestsAtConfiguredRate() throws Exception {
+        start(10_000, 0.25);
+        writable.countDown();
+        for (int i = 0; i < 4000; i++) {
+            accessLogService.record(AccessDecision.ALLOWED, "/css/main.css", null, null, TOKEN, System.nanoTime());
+        }
+        accessLogService.stop();
+
+        assertTrue(events.list.size() > 800 && events.list.size() < 1200, events.list.size() + " sampled of 4000");
+    }
+
+    @Test
+    void shouldAlwaysRecordViolations() throws Exception {
+        start(100, 0);
+        writable.countDown();
+        accessLogService.record(AccessDecision.ALLOWED, "/css/main.css", null, null, TOKEN, System.nanoTime());
+        accessLogService.record(AccessDecision.ACCESS_VIOLATION, "/Level1/low/access.html", Access.Level1,
+                Access.Level0, TOKEN, System.nanoTime());
+        accessLogService.record(AccessDecision.CSRF_VIOLATION, "/Level1/low/access.html", Access.Level1,
+                Access.Level1, TOKEN, System.nanoTime());
+        accessLogService.stop();
+
+        assertEquals(2, events.list.size());
+        assertTrue(events.list.get(0).getFormattedMessage().contains("decision=ACCESS_VIOLATION"));
+        assertTrue(events.list.get(1).getFormattedMessage().contains("decision=CSRF_VIOLATION"));
+    }
+
+    @Test
+    void shouldCountDropsWithoutBlockingWhenBufferIsFull() throws Exception {
+        start(1, 1);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 10; i++) {
+                accessLogService.record(AccessDecision.ACCESS_VIOLATION, "/Level1/low/access.html", Access.Level1,
+                        null, TOKEN, System.nanoTime());
+            }
+        });
+
+        // the writer holds at most one event, the buffer another, everything else is dropped
+        double dropped = meterRegistry.counter("gateway.access.log.dropped").count();
+        assertTrue(dropped >= 8 && dropped <= 9, dropped + " dropped of 10");
+    }
+
+    @Test
+    void shouldLogSessionTokenOnlyAsHash() throws Exception {
+        start(100, 1);
+        writable.countDown();
+        accessLogService.record(AccessDecision.ALLOWED, "/css/main.css", null, Access.Level0, TOKEN, System.nanoTime());
+        accessLogService.record(AccessDecision.ALLOWED, "/css/main.css", null, null, null, System.nanoTime());
+        accessLogService.stop();
+
+        String withToken = events.list.get(0).getFormattedMessage();
+        assertFalse(withToken.toUpperCase().contains(TOKEN), withToken);
+        assertTrue(withToken.matches(".* session=[0-9a-f]{16} .*"), withToken);
+        assertTrue(events.list.get(1).getFormattedMessage().contains(" session=- "));
+    }
+
+    private void start(int bufferSize, double sampleRate) throws Exception {
+        accessLogService = new AccessLogService(meterRegistry);
+        ReflectionTestUtils.setField(accessLogService, "bufferSize", bufferSize);
+        ReflectionTestUtils.setField(accessLogService, "sampleRate", sampleRate);
+        accessLogService.start();
+    }
+}
@@ -0,0 +1,39 @@
+package you.shall.not.pass.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import you.shall.not.pass.logging.AccessDecision;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GatewayMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GatewayMetrics gatewayMetrics = new GatewayMetrics(meterRegistry);
+
+    @Test
+    void shouldRecordEachStageUnderItsOwnTag() {
+        gatewayMetrics.record(GatewayStage.SESSION_LOOKUP, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5));
+        gatewayMetrics.record(GatewayStage.SESSION_LOOKUP, System.nanoTime());
+        gatewayMetrics.record(GatewayStage.COOKIE_PARSE, System.nanoTime());
+
+        Timer lookup = meterRegistry.get("gateway.stage").tag("stage", "session_lookup").timer();
+        assertEquals(2, lookup.count());
+        assertTrue(lookup.max(TimeUnit.MILLISECONDS) >= 5);
+        assertEquals(1, meterRegistry.get("gateway.stage").tag("stage", "cookie_parse").timer().count());
+        assertEquals(0, meterRegistry.get("gateway.stage").tag("stage", "csrf_validation").timer().count());
+        assertEquals(GatewayStage.values().length, meterRegistry.get("gateway.stage").timers().size());
+    }
+
+    @Test
+    void shouldRecordEachDecisionUnderItsOwnTag() {
+        gatewayMetrics.record(AccessDecision.CSRF_VIOLATION, System.nanoTime());
+
+        assertEquals(1, meterRegistry.get("gateway.decision").tag("decision", "csrf_violation").timer().count());
+        assertEquals(0, meterRegistry.get("gateway.decision").tag("decision", "allowed").timer().count());
+    }
+}
@@ -0,0 +1,91 @@
+package you.shall.not.pass.metrics;
+
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MongoCommandMetricsTest {
+
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MongoCommandMetrics mongoCommandMetrics = new MongoCommandMetrics(meterRegistry);
+
+    @Test
+    void shouldTagSucceededAndFailedCommandsWithTheCollectionTheyStartedOn() {
+        mongoCommandMetrics.commandStarted(started(1, "find", new BsonDocument("find", new BsonString("sessions"))));
+        mongoCommandMetrics.commandStarted(started(2, "update", new BsonDocument("update", new BsonString("user"))));
+        mongoCommandMetrics.commandSucceeded(new CommandSucceededEvent(1, CONNECTION, "find", new BsonDocument(),
+                TimeUnit.MILLISECONDS.toNanos(3)));
+        mongoCommandMetrics.commandFailed(new CommandFailedEvent(2, CONNECTION, "update",
+                TimeUnit.MILLISECONDS.toNanos(7), new MongoException("duplicate key")));
+
+        Timer find = timer("find", "sessions", "success");
+        assertEquals(1, find.count());
+        assertEquals(3, find.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, timer("update", "user", "failed").count());
+        assertEquals(2, meterRegistry.get("gateway.mongo.commands").timers().size());
+    }
+
+    @Test
+    void shouldTagGetMoreWithItsCollectionAndUnmatchedEventsWithNone() {
+        mongoCommandMetrics.commandStarted(started(1, "getMore", new BsonDocument("getMore", new BsonInt64(42))
+                .append("collection", new BsonString("sessions"))));
+        mongoCommandMetrics.commandSucceeded(new CommandSucceededEvent(1, CONNECTION, "getMore", new BsonDocument(), 1));
+        mongoCommandMetrics.commandSucceeded(new CommandSucceededEvent(9, CONNECTION, "find", new BsonDocument(), 1));
+
+        assertEquals(1, timer("getMore", "sessions", "success").count());
+        assertEquals(1, timer("find", "none", "success").count());
+    }
+
+    @Test
+    void shouldRegisterEachTimerOnce() {
+        AtomicInteger registrations = new AtomicInteger();
+        meterRegistry.config().meterFilter(new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                registrations.incrementAndGet();
+                return id;
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            mongoCommandMetrics.commandStarted(started(i, "find", new BsonDocument("find", new BsonString("sessions"))));
+            mongoCommandMetrics.commandSucceeded(new CommandSucceededEvent(i, CONNECTION, "find", new BsonDocument(), 1));
+        }
+
+        Timer find = timer("find", "sessions", "success");
+        assertEquals(3, find.count());
+        assertEquals(1, registrations.get());
+    }
+
+    private static CommandStartedEvent started(int requestId, String command, BsonDocument document) {
+        return new CommandStartedEvent(requestId, CONNECTION, "gate-keeper", command, document);
+    }
+
+    private Timer timer(String command, String collection, String status) {
+        return meterRegistry.get("gateway.mongo.commands")
+                .tag("command", command)
+                .tag("collection", collection)
+                .tag("status", status)
+                .timer();
+    }
+}
@@ -0,0 +1,137 @@
+package you.shall.not.pass.repositories;
+
+import com.mongodb.event.CommandStartedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.domain.Session;
+import you.shall.not.pass.domain.StoredSession;
+import you.shall.not.pass.domain.User;
+import you.shall.not.pass.metrics.MongoCommandMetrics;
+import you.shall.not.pass.service.MongoSessionStore;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Explains the finds the session store and repositories actually send, as captured by the command listener, so
+ * a changed query or a dropped index shows up here rather than as a collection scan in production.
+ */
+@SpringBootTest
+class MongoIndexTest {
+
+    private static final String TOKEN = "75DA5FAF2470BAA375DA5FAF2470BAA3";
+    private static final List<String> QUERY_FIELDS = Arrays.asList("filter", "sort", "projection", "hint", "skip", "limit");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoSessionStore sessionStore;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CapturedFinds capturedFinds;
+
+    @BeforeEach
+    void clear() {
+        capturedFinds.finds.clear();
+    }
+
+    @Test
+    void compactSessionByTokenShouldBeIdLookup() {
+        sessionStore.findByToken(TOKEN);
+        assertIndexBacked(StoredSession.class);
+    }
+
+    @Test
+    void compactLastKnownSessionShouldBeIndexBacked() {
+        sessionStore.findLastSession("bob", Access.Level1);
+        assertIndexBacked(StoredSession.class);
+    }
+
+    @Test
+    void sessionByTokenShouldBeIndexBacked() {
+        sessionStore.findByToken(TOKEN);
+        assertIndexBacked(Session.class);
+    }
+
+    @Test
+    void lastKnownSessionShouldBeIndexBacked() {
+        sessionStore.findLastSession("bob", Access.Level1);
+        assertIndexBacked(Session.class);
+    }
+
+    @Test
+    void userByNameShouldBeIndexBacked() {
+        userRepository.findByUserName("bob");
+        assertIndexBacked(User.class);
+    }
+
+    private void assertIndexBacked(Class<?> entity) {
+        String collection = mongoTemplate.getCollectionName(entity);
+        BsonDocument command = capturedFinds.finds.get(collection);
+        assertNotNull(command, "no find sent to " + collection);
+
+        BsonDocument find = new BsonDocument("find", command.get("find"));
+        for (String field : QUERY_FIELDS) {
+            if (command.containsKey(field)) {
+                find.append(field, command.get(field));
+            }
+        }
+        Document explain = mongoTemplate.getDb().runCommand(new BsonDocument("explain", find));
+        String winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class).toJson();
+
+        assertTrue(winningPlan.contains("IXSCAN") || winningPlan.contains("IDHACK"), find.toJson() + " " + winningPlan);
+        assertFalse(winningPlan.contains("COLLSCAN"), find.toJson() + " " + winningPlan);
+        assertFalse(winningPlan.contains("\"SORT\""), find.toJson() + " " + winningPlan);
+    }
+
+    @TestConfiguration
+    static class CaptureFinds {
+
+        @Bean
+        @Primary
+        CapturedFinds capturedFinds(MeterRegistry meterRegistry) {
+            return new CapturedFinds(meterRegistry);
+        }
+    }
+
+    /**
+     * Keeps the last find per collection. The event's document is only valid during the callback, so it is copied.
+     */
+    static class CapturedFinds extends MongoCommandMetrics {
+
+        private final Map<String, BsonDocument> finds = new ConcurrentHashMap<>();
+
+        CapturedFinds(MeterRegistry meterRegistry) {
+            super(meterRegistry);
+        }
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            super.commandStarted(event);
+            if ("find".equals(event.getCommandName())) {
+                BsonDocument command = BsonDocument.parse(event.getCommand().toJson());
+                finds.put(command.getString("find").getValue(), command);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package you.shall.not.pass.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+import you.shall.not.pass.event.UserProvisionedEvent;
+import you.shall.not.pass.service.SecureTokenService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingAuthenticationProviderTest {
+
+    private AuthenticationProvider passwordCheck;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setup() {
+        passwordCheck = mock(AuthenticationProvider.class);
+        when(passwordCheck.authenticate(any())).thenAnswer(invocation -> {
+            Authentication request = invocation.getArgument(0);
+            if (!"12341".equals(request.getCredentials())) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+            User principal = new User("bob", "", AuthorityUtils.createAuthorityList("Level1"));
+            return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        });
+
+        provider = new CachingAuthenticationProvider(passwordCheck, new SecureTokenService(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(provider, "enabled", true);
+        ReflectionTestUtils.setField(provider, "maximumSize", 100L);
+        ReflectionTestUtils.setField(provider, "ttlSeconds", 60L);
+        provider.setupCache();
+    }
+
+    @Test
+    void shouldOnlyCheckPasswordOnFirstContact() {
+        Authentication first = provider.authenticate(login("12341"));
+        Authentication second = provider.authenticate(login("12341"));
+
+        verify(passwordCheck, times(1)).authenticate(any());
+        assertEquals(first.getPrincipal(), second.getPrincipal());
+        assertEquals(first.getAuthorities(), second.getAuthorities());
+    }
+
+    @Test
+    void shouldNeverCacheFailedOrDifferentCredentials() {
+        provider.authenticate(login("12341"));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("wrong")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("wrong")));
+        verify(passwordCheck, times(3)).authenticate(any());
+    }
+
+    @Test
+    void shouldCheckPasswordAgainAfterUserIsProvisioned() {
+        provider.authenticate(login("12341"));
+        provider.onUserProvisioned(new UserProvisionedEvent(this, "bob"));
+        provider.authenticate(login("12341"));
+
+        verify(passwordCheck, times(2)).authenticate(any());
+    }
+
+    private UsernamePasswordAuthenticationToken login(String password) {
+        return new UsernamePasswordAuthenticationToken("Level1#bob", password);
+    }
+}
@@ -0,0 +1,51 @@
+package you.shall.not.pass.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.domain.Session;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnonymousTokenServiceTest {
+
+    private AnonymousTokenService anonymousTokenService;
+
+    @BeforeEach
+    void setup() {
+        anonymousTokenService = new AnonymousTokenService(new SecureTokenService());
+        ReflectionTestUtils.setField(anonymousTokenService, "secret", "");
+        anonymousTokenService.setupKey();
+    }
+
+    @Test
+    void shouldDecodeIssuedTokenAsLevel0SessionWithEmbeddedExpiry() {
+        Date expiry = new Date((System.currentTimeMillis() / 1000 + 180) * 1000);
+        String token = anonymousTokenService.issue(expiry);
+
+        Session session = anonymousTokenService.decode(token).orElseThrow(IllegalStateException::new);
+
+        assertEquals(32, token.length());
+        assertEquals(Access.Level0, session.getGrant());
+        assertEquals(expiry, session.getDate());
+        assertEquals(token, session.getToken());
+    }
+
+    @Test
+    void shouldRejectTamperedAndForeignTokens() {
+        String token = anonymousTokenService.issue(new Date());
+        char last = token.charAt(token.length() - 1);
+        String tampered = token.substring(0, token.length() - 1) + (last == '0' ? '1' : '0');
+
+        assertTrue(anonymousTokenService.verify(token));
+        assertFalse(anonymousTokenService.verify(tampered));
+        assertFalse(anonymousTokenService.verify(new SecureTokenService().generateToken(8)));
+        assertFalse(anonymousTokenService.verify("null"));
+        assertFalse(anonymousTokenService.verify(null));
+    }
+}
@@ -0,0 +1,39 @@
+package you.shall.not.pass.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.servlet.http.Cookie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CookieServiceTest {
+
+    private final CookieService cookieService = new CookieService();
+
+    @Test
+    void shouldParseRequestCookiesOncePerRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie("GRANT", "A1"), new Cookie("CSRF", "B2"));
+
+        RequestCookies cookies = cookieService.getCookies(request);
+
+        assertSame(cookies, cookieService.getCookies(request));
+        assertEquals("A1", cookieService.getCookieValue(request, "GRANT"));
+        assertEquals("B2", cookieService.getCookieValue(request, "CSRF"));
+        assertNull(cookieService.getCookieValue(request, "OTHER"));
+    }
+
+    @Test
+    void shouldHandleRequestWithoutCookies() {
+        assertNull(cookieService.getCookieValue(new MockHttpServletRequest(), "GRANT"));
+    }
+
+    @Test
+    void shouldRenderSetCookieHeader() {
+        assertEquals("GRANT=A1; SameSite=Strict; Path=/; HttpOnly; Max-Age=180",
+                cookieService.createCookie("GRANT", "A1", 180));
+    }
+}
@@ -0,0 +1,100 @@
+package you.shall.not.pass.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import you.shall.not.pass.exception.CsrfViolationException;
+
+import javax.servlet.http.Cookie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsrfProtectionServiceTest {
+
+    private static final int EXPIRY = 180;
+    private static final long ROTATION = 3600;
+
+    private CsrfKeyRing keyRing;
+    private CsrfProtectionService csrfProtectionService;
+
+    @BeforeEach
+    void setup() {
+        SecureTokenService tokenService = new SecureTokenService();
+        keyRing = new CsrfKeyRing(tokenService);
+        ReflectionTestUtils.setField(keyRing, "secret", "");
+        ReflectionTestUtils.setField(keyRing, "rotationSeconds", ROTATION);
+        ReflectionTestUtils.setField(keyRing, "expirySeconds", (long) EXPIRY);
+        keyRing.setupKeys();
+
+        csrfProtectionService = new CsrfProtectionService(new CookieService(), tokenService, keyRing);
+        ReflectionTestUtils.setField(csrfProtectionService, "expiry", EXPIRY);
+    }
+
+    @Test
+    void shouldAcceptIssuedTokenEchoedInHeader() {
+        String token = issueToken();
+
+        csrfProtectionService.validateCsrfCookie(request(token, token));
+    }
+
+    @Test
+    void shouldSignWithPooledSignersOnVirtualThreads() {
+        ReflectionTestUtils.setField(keyRing, "virtualThreads", true);
+        keyRing.setupKeys();
+
+        String token = issueToken();
+        csrfProtectionService.validateCsrfCookie(request(token, token));
+        assertViolation("CSRF/XSRF failed validation.", request(token, issueToken()));
+    }
+
+    @Test
+    void shouldRejectForgedOrMismatchedTokens() {
+        String token = issueToken();
+        String extended = token.substring(0, 17) + (Long.parseLong(token.substring(17, 27)) + 60) + token.substring(27);
+        String patternOnly = "75DA5FAF2470BAA3_" + (System.currentTimeMillis() / 1000 + 60);
+
+        assertViolation("CSRF Token is not valid.", request(extended, extended));
+        assertViolation("CSRF Token is not valid.", request(patternOnly, patternOnly));
+        assertViolation("CSRF/XSRF failed validation.", request(token, issueToken()));
+        assertViolation("Either the CSRF Token or the XSRF token is missing.", request(token, null));
+        assertViolation("Either the CSRF Token or the XSRF token is missing.", request(null, token));
+    }
+
+    @Test
+    void shouldOnlyAcceptPreviousKeyForOneExpiryWindowAfterRotation() {
+        long rotatedAt = 10 * ROTATION;
+
+        assertTrue(keyRing.isAcceptedWindow(keyRing.window(rotatedAt), rotatedAt));
+        assertTrue(keyRing.isAcceptedWindow(keyRing.window(rotatedAt - 1), rotatedAt + EXPIRY - 1));
+        assertFalse(keyRing.isAcceptedWindow(keyRing.window(rotatedAt - 1), rotatedAt + EXPIRY));
+        assertFalse(keyRing.isAcceptedWindow(keyRing.window(rotatedAt - ROTATION - 1), rotatedAt));
+    }
+
+    private String issueToken() {
+        String cookie = csrfProtectionService.getCsrfCookie();
+        String token = cookie.substring("CSRF=".length(), cookie.indexOf(';'));
+        assertEquals(60, token.length());
+        return token;
+    }
+
+    private MockHttpServletRequest request(String csrf, String xsrf) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (csrf != null) {
+            request.setCookies(new Cookie("CSRF", csrf));
+        }
+        if (xsrf != null) {
+            request.addHeader("XSRF", xsrf);
+        }
+        return request;
+    }
+
+    private void assertViolation(String message, MockHttpServletRequest request) {
+        CsrfViolationException violation = assertThrows(CsrfViolationException.class,
+                () -> csrfProtectionService.validateCsrfCookie(request));
+        assertEquals(message, violation.getMessage());
+    }
+}
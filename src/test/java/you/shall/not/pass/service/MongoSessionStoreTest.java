@@ -0,0 +1,102 @@
+package you.shall.not.pass.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.domain.Session;
+import you.shall.not.pass.domain.StoredSession;
+import you.shall.not.pass.repositories.SessionRepository;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MongoSessionStoreTest {
+
+    private static final String TOKEN = "75DA5FAF2470BAA375DA5FAF2470BAA3";
+
+    private MongoTemplate mongoTemplate;
+    private SessionRepository sessionRepository;
+    private SessionWriter sessionWriter;
+    private MongoSessionStore sessionStore;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate = mock(MongoTemplate.class);
+        sessionRepository = mock(SessionRepository.class);
+        sessionWriter = mock(SessionWriter.class);
+        sessionStore = store(new StaticListableBeanFactory());
+    }
+
+    @Test
+    void shouldReadCompactSessionByTokenBytes() {
+        Date expiry = new Date();
+        when(mongoTemplate.findById(HexEncoder.decode(TOKEN), StoredSession.class)).thenReturn(StoredSession.builder()
+                .token(HexEncoder.decode(TOKEN))
+                .grant(Access.Level2.getLevel())
+                .userId("bob")
+                .expiry(expiry.getTime())
+                .build());
+
+        Session session = sessionStore.findByToken(TOKEN).orElseThrow(IllegalStateException::new);
+
+        assertEquals(Session.builder().token(TOKEN).grant(Access.Level2).userId("bob").date(expiry).build(), session);
+        verify(sessionRepository, never()).findByToken(TOKEN);
+    }
+
+    @Test
+    void shouldRewriteLegacySessionInCompactForm() {
+        Session legacy = Session.builder().sessionId("id").token(TOKEN).grant(Access.Level1).date(new Date()).build();
+        when(sessionRepository.findByToken(TOKEN)).thenReturn(legacy);
+
+        assertEquals(legacy, sessionStore.findByToken(TOKEN).orElse(null));
+        verify(sessionWriter).write(Session.builder().token(TOKEN).grant(Access.Level1).date(legacy.getDate()).build());
+
+        ReflectionTestUtils.setField(sessionStore, "legacyReads", false);
+        assertFalse(sessionStore.findByToken(TOKEN).isPresent());
+    }
+
+    @Test
+    void shouldOnlyLookUpLegacySessionsForNonHexTokens() {
+        when(sessionRepository.findByToken("legacy")).thenReturn(Session.builder().token("legacy").build());
+
+        assertTrue(sessionStore.findByToken("legacy").isPresent());
+        verify(sessionWriter, never()).write(Session.builder().token("legacy").build());
+    }
+
+    @Test
+    void shouldLookUpSessionsOnReactiveDriverWhenAvailable() {
+        ReactiveMongoOperations reactiveMongo = mock(ReactiveMongoOperations.class);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("reactiveMongoTemplate", reactiveMongo);
+        sessionStore = store(beanFactory);
+        when(reactiveMongo.findById(HexEncoder.decode(TOKEN), StoredSession.class)).thenReturn(Mono.empty());
+        Session legacy = Session.builder().token(TOKEN).grant(Access.Level1).build();
+        when(reactiveMongo.findOne(any(Query.class), eq(Session.class))).thenReturn(Mono.just(legacy));
+
+        assertEquals(legacy, sessionStore.findByTokenReactive(TOKEN).block());
+        verify(sessionWriter).write(legacy);
+        verify(mongoTemplate, never()).findById(HexEncoder.decode(TOKEN), StoredSession.class);
+    }
+
+    private MongoSessionStore store(StaticListableBeanFactory beanFactory) {
+        MongoSessionStore store = new MongoSessionStore(mongoTemplate, sessionRepository, sessionWriter,
+                beanFactory.getBeanProvider(ReactiveMongoOperations.class));
+        ReflectionTestUtils.setField(store, "legacyReads", true);
+        return store;
+    }
+}
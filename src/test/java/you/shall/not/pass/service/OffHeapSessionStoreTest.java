@@ -0,0 +1,120 @@
+package you.shall.not.pass.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.domain.Session;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapSessionStoreTest {
+
+    private final SecureTokenService tokenService = new SecureTokenService();
+    private OffHeapSessionStore sessionStore;
+
+    @BeforeEach
+    void setup() {
+        sessionStore = new OffHeapSessionStore(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(sessionStore, "capacity", 4096);
+        sessionStore.allocate();
+    }
+
+    @Test
+    void shouldMergePartialSavesByToken() {
+        String token = tokenService.generateToken();
+        Date expiry = inSeconds(60);
+        sessionStore.save(Session.builder().token(token).grant(Access.Level0).date(expiry).build());
+        sessionStore.saveNow(Session.builder().token(token).grant(Access.Level2).userId("user").build());
+
+        Session session = sessionStore.findByToken(token.toLowerCase()).orElseThrow(IllegalStateException::new);
+
+        assertEquals(Access.Level2, session.getGrant());
+        assertEquals("user", session.getUserId());
+        assertEquals(expiry, session.getDate());
+        assertEquals(1, sessionStore.size());
+        assertFalse(sessionStore.findByToken(tokenService.generateToken()).isPresent());
+        assertFalse(sessionStore.findByToken("null").isPresent());
+        assertThrows(IllegalArgumentException.class,
+                () -> sessionStore.save(Session.builder().token("not-a-token").build()));
+    }
+
+    @Test
+    void shouldFindLatestSessionOfUserAndGrant() {
+        String older = save(Access.Level1, "user", 30);
+        String latest = save(Access.Level1, "user", 60);
+        save(Access.Level2, "user", 90);
+
+        assertEquals(latest, sessionStore.findLastSession("user", Access.Level1).map(Session::getToken).orElse(null));
+        assertTrue(sessionStore.findByToken(older).isPresent());
+        assertFalse(sessionStore.findLastSession("other", Access.Level1).isPresent());
+    }
+
+    @Test
+    void shouldHoldConfiguredCapacityOfLiveSessions() {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 4096; i++) {
+            tokens.add(save(Access.Level1, "user" + (i % 7), 60));
+        }
+
+        assertEquals(4096, sessionStore.size());
+        assertTrue(tokens.stream().allMatch(token -> sessionStore.findByToken(token).isPresent()));
+    }
+
+    @Test
+    void shouldSizeSegmentsBelowLoadFactorAtCapacity() {
+        for (int capacity : new int[]{1, 4096, 100_000, 1_048_576}) {
+            int slots = OffHeapSessionStore.segmentSlots(capacity);
+            assertEquals(0, slots & (slots - 1), "power of two");
+            assertTrue(slots - (slots >>> 2) > (capacity + 63) / 64, "capacity " + capacity + " fits " + slots);
+        }
+    }
+
+    @Test
+    void shouldPurgeExpiredSessionsWithoutLosingLiveOnes() {
+        List<String> live = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String token = save(Access.Level1, "user" + (i % 7), i % 2 == 0 ? -1 : 60);
+            if (i % 2 != 0) {
+                live.add(token);
+            }
+        }
+        assertEquals(1000, live.size());
+        assertEquals(2000, sessionStore.size());
+
+        sessionStore.purgeExpired();
+
+        assertEquals(1000, sessionStore.size());
+        for (String token : live) {
+            assertTrue(sessionStore.findByToken(token).isPresent());
+        }
+    }
+
+    @Test
+    void shouldMakeRoomByPurgingWhenASegmentFills() {
+        for (int i = 0; i < 4000; i++) {
+            save(Access.Level0, null, -1);
+        }
+        assertTrue(sessionStore.size() <= 4096);
+        String token = save(Access.Level0, null, 60);
+        assertTrue(sessionStore.findByToken(token).isPresent());
+    }
+
+    private String save(Access grant, String userId, int expirySeconds) {
+        String token = tokenService.generateToken();
+        sessionStore.save(Session.builder().token(token).grant(grant).userId(userId).date(inSeconds(expirySeconds)).build());
+        return token;
+    }
+
+    private static Date inSeconds(int seconds) {
+        return new Date(System.currentTimeMillis() + seconds * 1000L);
+    }
+}
@@ -0,0 +1,50 @@
+package you.shall.not.pass.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReusePoolTest {
+
+    @Test
+    void shouldKeepOneHelperPerPlatformThread() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        ReusePool<Object> pool = ReusePool.of(() -> created.incrementAndGet(), false);
+
+        Object helper = pool.borrow();
+        pool.release(helper);
+        assertSame(helper, pool.borrow());
+        assertTrue(pool.isPerThread());
+
+        Thread other = new Thread(pool::borrow);
+        other.start();
+        other.join();
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void shouldShareReleasedHelpersAcrossThreadsWhenPooled() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        ReusePool<Object> pool = ReusePool.of(() -> created.incrementAndGet(), true);
+
+        Object first = pool.borrow();
+        Object second = pool.borrow();
+        assertNotSame(first, second);
+        pool.release(first);
+        pool.release(second);
+
+        for (int i = 0; i < 10; i++) {
+            Thread request = new Thread(() -> pool.release(pool.borrow()));
+            request.start();
+            request.join();
+        }
+        assertEquals(2, created.get());
+        assertFalse(pool.isPerThread());
+    }
+}
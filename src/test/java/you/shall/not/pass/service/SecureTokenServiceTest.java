@@ -0,0 +1,39 @@
+package you.shall.not.pass.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SecureTokenServiceTest {
+
+    @Test
+    void shouldEncodeUpperCaseHex() {
+        byte[] bytes = {0x00, 0x0F, 0x7A, (byte) 0x80, (byte) 0xFF};
+
+        assertEquals("000F7A80FF", HexEncoder.encode(bytes));
+        assertEquals("7A80", HexEncoder.encode(bytes, 2, 2));
+    }
+
+    @Test
+    void shouldGenerateDistinctHexTokensFromPrefetchBuffer() throws Exception {
+        SecureTokenService tokenService = new SecureTokenService();
+        ReflectionTestUtils.setField(tokenService, "prefetchSize", 64);
+        tokenService.startPrefetch();
+        try {
+            Set<String> tokens = new HashSet<>();
+            for (int i = 0; i < 1000; i++) {
+                String token = tokenService.generateToken();
+                assertTrue(token.matches("[0-9A-F]{32}"), token);
+                tokens.add(token);
+            }
+            assertEquals(1000, tokens.size());
+        } finally {
+            tokenService.stopPrefetch();
+        }
+    }
+}
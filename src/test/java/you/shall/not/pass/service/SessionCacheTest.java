@@ -0,0 +1,57 @@
+package you.shall.not.pass.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.domain.Session;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionCacheTest {
+
+    private SessionCache sessionCache;
+
+    @BeforeEach
+    void setup() {
+        sessionCache = new SessionCache(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(sessionCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(sessionCache, "ttlSeconds", 30L);
+        sessionCache.setupCache();
+    }
+
+    @Test
+    void shouldReturnCachedSessionAndCountHitsAndMisses() {
+        sessionCache.put(session("A1", 60_000));
+
+        assertTrue(sessionCache.get("A1").isPresent());
+        assertFalse(sessionCache.get("B2").isPresent());
+        assertEquals(1, sessionCache.stats().hitCount());
+        assertEquals(1, sessionCache.stats().missCount());
+    }
+
+    @Test
+    void shouldNeverReturnSessionPastItsExpiryDate() {
+        sessionCache.put(session("A1", -1_000));
+
+        assertFalse(sessionCache.get("A1").isPresent());
+    }
+
+    @Test
+    void shouldIgnoreMissingToken() {
+        assertFalse(sessionCache.get(null).isPresent());
+    }
+
+    private Session session(String token, long expiresInMillis) {
+        return Session.builder()
+                .token(token)
+                .grant(Access.Level1)
+                .date(new Date(System.currentTimeMillis() + expiresInMillis))
+                .build();
+    }
+}
@@ -0,0 +1,129 @@
+package you.shall.not.pass.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.domain.Session;
+import you.shall.not.pass.repositories.SessionRepository;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionServiceTest {
+
+    private static final int EXPIRY = 60;
+
+    private SessionCache sessionCache;
+    private SessionStore sessionStore;
+    private AnonymousTokenService anonymousTokenService;
+    private SessionService sessionService;
+
+    @BeforeEach
+    void setup() {
+        sessionCache = new SessionCache(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(sessionCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(sessionCache, "ttlSeconds", 30L);
+        sessionCache.setupCache();
+        sessionStore = mock(SessionStore.class);
+        anonymousTokenService = new AnonymousTokenService(new SecureTokenService());
+        ReflectionTestUtils.setField(anonymousTokenService, "secret", "");
+        anonymousTokenService.setupKey();
+
+        sessionService = service(sessionStore);
+    }
+
+    @Test
+    void shouldRenewOnlyOncePastRenewFraction() {
+        Session fresh = cached("A", Access.Level1, 50);
+        Session aged = cached("B", Access.Level1, 20);
+
+        assertFalse(sessionService.renewSession(fresh).isPresent());
+        String cookie = sessionService.renewSession(aged).orElseThrow(IllegalStateException::new);
+        assertFalse(sessionService.renewSession(aged).isPresent());
+
+        assertTrue(cookie.startsWith("GRANT=B;"));
+        Session renewed = sessionCache.get("B").orElseThrow(IllegalStateException::new);
+        assertTrue(renewed.getDate().getTime() > System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(EXPIRY - 5));
+        assertEquals("user", renewed.getUserId());
+        verify(sessionStore).save(renewed);
+    }
+
+    @Test
+    void shouldNotRenewLazyAnonymousOrWhenDisabled() {
+        Session anonymous = cached("A", Access.Level0, 1);
+        assertFalse(sessionService.renewSession(anonymous).isPresent());
+
+        ReflectionTestUtils.setField(sessionService, "slidingExpiry", false);
+        assertFalse(sessionService.renewSession(cached("B", Access.Level2, 1)).isPresent());
+        verify(sessionStore, never()).save(any());
+    }
+
+    @Test
+    void shouldLookUpStoredSessionsBeforeVerifyingLazyTokens() {
+        String unsigned = new SecureTokenService().generateToken();
+        Session elevated = Session.builder().token(unsigned).grant(Access.Level1).date(new Date()).build();
+        when(sessionStore.findByToken(unsigned)).thenReturn(Optional.of(elevated));
+        assertEquals(elevated, sessionService.findSessionByToken(unsigned).orElse(null));
+
+        String signed = anonymousTokenService.issue(new Date(System.currentTimeMillis() + 60_000));
+        when(sessionStore.findByToken(signed)).thenReturn(Optional.empty());
+        assertEquals(Access.Level0, sessionService.findSessionByToken(signed).map(Session::getGrant).orElse(null));
+
+        when(sessionStore.findByToken("unknown")).thenReturn(Optional.empty());
+        assertFalse(sessionService.findSessionByToken("unknown").isPresent());
+    }
+
+    @Test
+    void shouldMigrateLegacySessionFoundForUnsignedTokenInLazyMode() {
+        String legacyToken = new SecureTokenService().generateToken();
+        Session legacy = Session.builder().sessionId("id").token(legacyToken).grant(Access.Level2).userId("user")
+                .date(new Date(System.currentTimeMillis() + 60_000)).build();
+        SessionRepository sessionRepository = mock(SessionRepository.class);
+        when(sessionRepository.findByToken(legacyToken)).thenReturn(legacy);
+        SessionWriter sessionWriter = mock(SessionWriter.class);
+        when(sessionWriter.pending(legacyToken)).thenReturn(Optional.empty());
+        MongoSessionStore mongoStore = new MongoSessionStore(mock(MongoTemplate.class), sessionRepository, sessionWriter,
+                new StaticListableBeanFactory().getBeanProvider(ReactiveMongoOperations.class));
+        ReflectionTestUtils.setField(mongoStore, "legacyReads", true);
+
+        assertEquals(legacy, service(mongoStore).findSessionByToken(legacyToken).orElse(null));
+        verify(sessionWriter).write(Session.builder().token(legacyToken).grant(Access.Level2).userId("user")
+                .date(legacy.getDate()).build());
+    }
+
+    private SessionService service(SessionStore store) {
+        SessionService service = new SessionService(store, null, null, new CookieService(),
+                new DateService(), sessionCache, null, anonymousTokenService);
+        ReflectionTestUtils.setField(service, "sessionExpirySeconds", EXPIRY);
+        ReflectionTestUtils.setField(service, "lazyAnonymousSessions", true);
+        ReflectionTestUtils.setField(service, "slidingExpiry", true);
+        ReflectionTestUtils.setField(service, "renewFraction", 0.5);
+        return service;
+    }
+
+    private Session cached(String token, Access grant, int remainingSeconds) {
+        Session session = Session.builder()
+                .token(token)
+                .grant(grant)
+                .userId("user")
+                .date(new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(remainingSeconds)))
+                .build();
+        sessionCache.put(session);
+        return session;
+    }
+}
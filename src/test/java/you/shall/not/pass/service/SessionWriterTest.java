@@ -0,0 +1,137 @@
+package you.shall.not.pass.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import you.shall.not.pass.domain.Access;
+import you.shall.not.pass.domain.Session;
+import you.shall.not.pass.domain.StoredSession;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionWriterTest {
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bulkOperations;
+    private SessionWriter sessionWriter;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StoredSession.class)).thenReturn(bulkOperations);
+        meterRegistry = new SimpleMeterRegistry();
+        sessionWriter = new SessionWriter(mongoTemplate, meterRegistry);
+        ReflectionTestUtils.setField(sessionWriter, "batchSize", 2);
+        ReflectionTestUtils.setField(sessionWriter, "maxPending", 2);
+    }
+
+    @Test
+    void shouldCoalesceWritesPerTokenIntoBulkUpserts() {
+        sessionWriter.write(session("0A", Access.Level0));
+        sessionWriter.write(session("0A", Access.Level1));
+        sessionWriter.write(session("0B", Access.Level0));
+        assertEquals(Access.Level1, sessionWriter.pending("0A").map(Session::getGrant).orElse(null));
+
+        sessionWriter.flush();
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).upsert(any(Query.class), updates.capture());
+        verify(bulkOperations).execute();
+        assertTrue(updates.getAllValues().stream()
+                .anyMatch(update -> update.getUpdateObject().get("$set", Document.class)
+                        .get("grant").equals(Access.Level1.getLevel())));
+        assertFalse(sessionWriter.pending("0A").isPresent());
+    }
+
+    @Test
+    void shouldWriteElevationThroughAndDropQueuedAnonymousWrite() {
+        sessionWriter.write(session("0A", Access.Level0));
+
+        sessionWriter.writeNow(session("0A", Access.Level2));
+        sessionWriter.flush();
+
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(StoredSession.class));
+        verify(bulkOperations, never()).execute();
+    }
+
+    @Test
+    void shouldRequeueFailedBatch() {
+        when(bulkOperations.execute()).thenThrow(new IllegalStateException("no primary"));
+        sessionWriter.write(session("0A", Access.Level0));
+
+        sessionWriter.flush();
+
+        assertTrue(sessionWriter.pending("0A").isPresent());
+    }
+
+    @Test
+    void shouldDropWritesOfNewTokensOncePendingIsFull() {
+        when(bulkOperations.execute()).thenThrow(new IllegalStateException("no primary"));
+        sessionWriter.write(session("0A", Access.Level0));
+        sessionWriter.write(session("0B", Access.Level0));
+        sessionWriter.write(session("0C", Access.Level0));
+        sessionWriter.write(session("0A", Access.Level1));
+
+        assertFalse(sessionWriter.pending("0C").isPresent());
+        assertEquals(Access.Level1, sessionWriter.pending("0A").map(Session::getGrant).orElse(null));
+        assertEquals(1, meterRegistry.counter("gateway.session.writes.dropped").count());
+
+        sessionWriter.flush();
+        sessionWriter.write(session("0C", Access.Level0));
+        assertFalse(sessionWriter.pending("0C").isPresent());
+        assertEquals(2, meterRegistry.counter("gateway.session.writes.dropped").count());
+    }
+
+    @Test
+    void shouldWriteThroughWithoutWaitingForUnrelatedFlush() throws Exception {
+        CountDownLatch executing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bulkOperations.execute()).thenAnswer(invocation -> {
+            executing.countDown();
+            release.await();
+            return null;
+        });
+        sessionWriter.write(session("0A", Access.Level0));
+        Thread flush = new Thread(sessionWriter::flush);
+        flush.start();
+        assertTrue(executing.await(5, TimeUnit.SECONDS));
+
+        sessionWriter.writeNow(session("0B", Access.Level2));
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(StoredSession.class));
+
+        CompletableFuture<Void> elevation = CompletableFuture.runAsync(() -> sessionWriter.writeNow(session("0A", Access.Level2)));
+        Thread.sleep(100);
+        assertFalse(elevation.isDone());
+        release.countDown();
+        elevation.get(5, TimeUnit.SECONDS);
+        flush.join();
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), any(Update.class), eq(StoredSession.class));
+    }
+
+    private Session session(String token, Access grant) {
+        return Session.builder().token(token).grant(grant).date(new Date()).build();
+    }
+}
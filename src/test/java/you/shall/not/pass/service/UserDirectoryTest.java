@@ -0,0 +1,123 @@
+package you.shall.not.pass.service;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import you.shall.not.pass.domain.User;
+import you.shall.not.pass.event.UserProvisionedEvent;
+import you.shall.not.pass.repositories.UserRepository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserDirectoryTest {
+
+    private UserRepository repository;
+    private MongoTemplate mongoTemplate;
+    private UserDirectory directory;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(UserRepository.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getCollectionName(User.class)).thenReturn("user");
+        when(mongoTemplate.getCollection("user")).thenThrow(new MongoException("not a replica set"));
+        when(repository.findAll()).thenReturn(Arrays.asList(user("bob", 1), user("patrick", 1)));
+        directory = new UserDirectory(repository, mongoTemplate);
+    }
+
+    @Test
+    void shouldServeUsersFromMemoryOnceLoaded() {
+        when(repository.findByUserName("bob")).thenReturn(Optional.of(user("bob", 1)));
+        assertEquals(1, directory.findByUserName("bob").map(User::getVersion).orElse(0L));
+
+        directory.load();
+        directory.findByUserName("bob");
+        directory.findByUserName("nobody");
+
+        verify(repository, never()).findByUserName("nobody");
+    }
+
+    @Test
+    void shouldReloadChangedVersionsAndDropRemovedUsersWhenPolling() {
+        directory.load();
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("user")))
+                .thenReturn(Collections.singletonList(new Document("userName", "bob").append("version", 2L)));
+        when(repository.findByUserName("bob")).thenReturn(Optional.of(user("bob", 2)));
+
+        directory.refresh();
+
+        assertEquals(2, directory.findByUserName("bob").map(User::getVersion).orElse(0L));
+        assertFalse(directory.findByUserName("patrick").isPresent());
+    }
+
+    @Test
+    void shouldPickUpProvisionedUserImmediately() {
+        directory.load();
+        when(repository.findByUserName(anyString())).thenReturn(Optional.of(user("sandy", 1)));
+
+        directory.onUserProvisioned(new UserProvisionedEvent(this, "sandy"));
+
+        assertEquals("sandy", directory.findByUserName("sandy").map(User::getUserName).orElse(null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldDropOldNameWhenChangeStreamRenamesUser() throws Exception {
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        ChangeStreamIterable<Document> stream = mock(ChangeStreamIterable.class);
+        MongoCursor<ChangeStreamDocument<Document>> cursor = mock(MongoCursor.class);
+        MongoConverter converter = mock(MongoConverter.class);
+        Document renamed = new Document("userName", "robert");
+        CountDownLatch applied = new CountDownLatch(1);
+        doReturn(collection).when(mongoTemplate).getCollection("user");
+        when(collection.watch()).thenReturn(stream);
+        when(stream.fullDocument(FullDocument.UPDATE_LOOKUP)).thenReturn(stream);
+        when(stream.iterator()).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true).thenAnswer(invocation -> {
+            applied.countDown();
+            return false;
+        });
+        when(cursor.next()).thenReturn(new ChangeStreamDocument<>(OperationType.UPDATE, null, null, null,
+                renamed, null, null, null));
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(converter.read(User.class, renamed))
+                .thenReturn(User.builder().id("bob-id").userName("robert").version(2).build());
+
+        directory.load();
+
+        assertTrue(applied.await(5, TimeUnit.SECONDS));
+        assertEquals("bob-id", directory.findByUserName("robert").map(User::getId).orElse(null));
+        assertFalse(directory.findByUserName("bob").isPresent());
+        assertTrue(directory.findByUserName("patrick").isPresent());
+    }
+
+    private User user(String userName, long version) {
+        return User.builder().id(userName + "-id").userName(userName).version(version).build();
+    }
+}